@@ -0,0 +1,146 @@
+package com.blog.benchmark;
+
+import com.blog.BlogApplication;
+import com.blog.search.SearchIndexInitializer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Boots the application (by default without web server) against a fresh in-memory H2 database
+ * and seeds it with a deterministic dataset of the requested size
+ *
+ * Every post has CATEGORIES_PER_POST categories and COMMENTS_PER_POST comments,
+ * ids are 1..rows and the newest post has the highest id.
+ */
+public final class BlogDataset implements AutoCloseable {
+
+    public static final int CATEGORIES = 20;
+    public static final int CATEGORIES_PER_POST = 2;
+    public static final int COMMENTS_PER_POST = 3;
+    public static final int VOCABULARY = 5_000;
+
+    private static final int BATCH = 1_000;
+
+    private final ConfigurableApplicationContext context;
+    private final int rows;
+
+    private BlogDataset(ConfigurableApplicationContext context, int rows) {
+        this.context = context;
+        this.rows = rows;
+    }
+
+    public static BlogDataset start(int rows) {
+        return start(rows, WebApplicationType.NONE);
+    }
+
+    /**
+     * @param properties extra application properties, e.g. "server.port=0"
+     */
+    public static BlogDataset start(int rows, WebApplicationType webApplicationType, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BlogApplication.class)
+                .web(webApplicationType)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "logging.level.root=WARN"
+                )
+                .properties(properties)
+                .run();
+
+        BlogDataset dataset = new BlogDataset(context, rows);
+        dataset.seed();
+        // the index was built at startup, before the rows existed
+        context.getBean(SearchIndexInitializer.class).rebuild();
+        return dataset;
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    // port of the embedded server when started with server.port=0
+    public int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public static String categoryName(int index) {
+        return "category-" + index;
+    }
+
+    public static String word(int index) {
+        return "w" + index;
+    }
+
+    private void seed() {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Random random = new Random(42);
+        LocalDateTime newest = LocalDateTime.now();
+
+        jdbc.batchUpdate("INSERT INTO categories (id, name, description) VALUES (?, ?, ?)",
+                IntStream.rangeClosed(1, CATEGORIES)
+                        .mapToObj(i -> new Object[]{i, categoryName(i), "benchmark category " + i})
+                        .collect(Collectors.toList()));
+
+        List<Object[]> posts = new ArrayList<>(BATCH);
+        List<Object[]> postCategories = new ArrayList<>(BATCH * CATEGORIES_PER_POST);
+        List<Object[]> comments = new ArrayList<>(BATCH * COMMENTS_PER_POST);
+        long commentId = 1;
+
+        for (long postId = 1; postId <= rows; postId++) {
+            Timestamp createdAt = Timestamp.valueOf(newest.minusSeconds(rows - postId));
+            posts.add(new Object[]{postId, words(random, 6), words(random, 60), createdAt, createdAt, COMMENTS_PER_POST});
+
+            int firstCategory = (int) (postId % CATEGORIES) + 1;
+            for (int c = 0; c < CATEGORIES_PER_POST; c++) {
+                postCategories.add(new Object[]{postId, (firstCategory + c - 1) % CATEGORIES + 1});
+            }
+            for (int c = 0; c < COMMENTS_PER_POST; c++) {
+                comments.add(new Object[]{commentId++, words(random, 15), "reader" + c, createdAt, postId});
+            }
+
+            if (posts.size() == BATCH || postId == rows) {
+                jdbc.batchUpdate("INSERT INTO posts (id, title, content, created_at, updated_at, comment_count) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", posts);
+                jdbc.batchUpdate("INSERT INTO post_categories (post_id, category_id) VALUES (?, ?)", postCategories);
+                jdbc.batchUpdate("INSERT INTO comments (id, content, author_name, created_at, post_id) " +
+                        "VALUES (?, ?, ?, ?, ?)", comments);
+                posts.clear();
+                postCategories.clear();
+                comments.clear();
+            }
+        }
+
+        // rows were inserted with explicit ids, move the generators past them
+        // (pooled sequences hand out the 50 ids below the value they return)
+        jdbc.execute("ALTER TABLE categories ALTER COLUMN id RESTART WITH " + (CATEGORIES + 1));
+        jdbc.execute("ALTER SEQUENCE posts_seq RESTART WITH " + (rows + 100));
+        jdbc.execute("ALTER SEQUENCE comments_seq RESTART WITH " + (commentId + 100));
+    }
+
+    // log-uniform choice: a few very common words and a long tail, like real text
+    private static String words(Random random, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> word((int) Math.pow(VOCABULARY, random.nextDouble()) - 1))
+                .collect(Collectors.joining(" "));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,210 @@
+package com.blog.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * HTTP load comparison of the blocking endpoints with platform vs virtual request threads
+ *
+ * Starts the full application on a random port (once per mode) on a seeded dataset,
+ * then drives the read and write endpoints of PostController and CommentController
+ * with a fixed number of concurrent clients, more than the 200 Tomcat platform threads.
+ * Reports throughput and p50/p99 latency, printed and written to target/load-comparison.json.
+ *
+ * Arguments: [rows=10000] [concurrent clients=400] [seconds per scenario=20]
+ * The virtual thread run needs a Java 21+ runtime and is skipped otherwise.
+ */
+public final class LoadComparison {
+
+    private static final String JSON = "application/json";
+
+    private LoadComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = intArg(args, 0, 10_000);
+        int clients = intArg(args, 1, 400);
+        Duration duration = Duration.ofSeconds(intArg(args, 2, 20));
+
+        List<Boolean> modes = new ArrayList<>(List.of(false));
+        if (Runtime.version().feature() >= 21) {
+            modes.add(true);
+        } else {
+            System.err.println("Java " + Runtime.version().feature() + ": virtual threads need Java 21+, platform run only");
+        }
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtual : modes) {
+            String mode = virtual ? "virtual" : "platform";
+            try (BlogDataset dataset = BlogDataset.start(rows, WebApplicationType.SERVLET,
+                    "server.port=0",
+                    "spring.threads.virtual.enabled=" + virtual,
+                    "blog.concurrency.max-in-flight=" + (virtual ? 200 : 0))) {
+
+                String baseUrl = "http://localhost:" + dataset.port();
+                for (Scenario scenario : scenarios(rows)) {
+                    // warm up the JIT and the caches, then measure
+                    run(baseUrl, scenario, clients, duration.dividedBy(4));
+                    Result result = run(baseUrl, scenario, clients, duration);
+
+                    String line = String.format(
+                            "{\"mode\":\"%s\",\"scenario\":\"%s\",\"clients\":%d,\"requests\":%d,\"errors\":%d," +
+                                    "\"throughput\":%.1f,\"p50Millis\":%.3f,\"p99Millis\":%.3f}",
+                            mode, scenario.name, clients, result.requests, result.errors,
+                            result.throughput, result.p50Millis, result.p99Millis);
+                    System.out.println(line);
+                    results.add(line);
+                }
+            }
+        }
+
+        Path output = Path.of("target", "load-comparison.json");
+        Files.createDirectories(output.getParent());
+        Files.write(output, results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static List<Scenario> scenarios(int rows) {
+        Function<ThreadLocalRandom, Long> anyPost = random -> random.nextLong(1, rows + 1);
+        return List.of(
+                new Scenario("GET /api/posts/{id}", "GET",
+                        random -> "/api/posts/" + anyPost.apply(random), random -> null),
+                new Scenario("GET /api/posts?page", "GET",
+                        random -> "/api/posts?page=" + random.nextInt(100) + "&size=10", random -> null),
+                new Scenario("GET /api/comments/post/{id}/paged", "GET",
+                        random -> "/api/comments/post/" + anyPost.apply(random) + "/paged", random -> null),
+                new Scenario("POST /api/comments", "POST",
+                        random -> "/api/comments",
+                        random -> "{\"content\":\"load test comment\",\"authorName\":\"load\",\"postId\":"
+                                + anyPost.apply(random) + "}"),
+                new Scenario("POST /api/posts", "POST",
+                        random -> "/api/posts",
+                        random -> "{\"title\":\"Load test post\",\"content\":\"content written by the load test\"," +
+                                "\"categoryIds\":[" + random.nextInt(1, BlogDataset.CATEGORIES + 1) + "]}")
+        );
+    }
+
+    private static Result run(String baseUrl, Scenario scenario, int clients, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            futures.add(workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = scenario.request(baseUrl, random);
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException ex) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - sent;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        List<long[]> perClient = new ArrayList<>(clients);
+        for (Future<long[]> future : futures) {
+            perClient.add(future.get());
+        }
+        long elapsed = System.nanoTime() - start;
+        workers.shutdown();
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = elapsed / 1_000_000_000.0;
+        return new Result(all.length, errors.get(), all.length / seconds,
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99));
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    private static final class Scenario {
+
+        private final String name;
+        private final String method;
+        private final Function<ThreadLocalRandom, String> path;
+        private final Function<ThreadLocalRandom, String> body;
+
+        private Scenario(String name, String method,
+                         Function<ThreadLocalRandom, String> path,
+                         Function<ThreadLocalRandom, String> body) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        private HttpRequest request(String baseUrl, ThreadLocalRandom random) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path.apply(random)))
+                    .timeout(Duration.ofSeconds(30));
+            String payload = body.apply(random);
+            if (payload == null) {
+                return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+            }
+            return builder.header("Content-Type", JSON)
+                    .method(method, HttpRequest.BodyPublishers.ofString(payload))
+                    .build();
+        }
+    }
+
+    private static final class Result {
+
+        private final long requests;
+        private final long errors;
+        private final double throughput;
+        private final double p50Millis;
+        private final double p99Millis;
+
+        private Result(long requests, long errors, double throughput, double p50Millis, double p99Millis) {
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.blog.benchmark;
+
+import com.blog.dtos.CategoryResponse;
+import com.blog.dtos.CommentResponse;
+import com.blog.dtos.PostResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of a page of PostResponse with embedded comments, per wire format
+ *
+ * Measures the time to encode the page; the encoded size of every format is
+ * printed at the start of each trial. json-gzip is JSON followed by gzip at the
+ * default level, like server.compression does.
+ *
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="SerializationBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final ObjectMapper JSON = JsonMapper.builder().build();
+    private static final ObjectMapper CBOR = CBORMapper.builder().build();
+    private static final ObjectMapper SMILE = SmileMapper.builder().build();
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"3", "50"})
+    private int commentsPerPost;
+
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    private String format;
+
+    private List<PostResponse> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        page = page(pageSize, commentsPerPost, new Random(42));
+
+        System.out.printf("%npayload of %d posts x %d comments: json %d B, json-gzip %d B, cbor %d B, smile %d B%n",
+                pageSize, commentsPerPost,
+                JSON.writeValueAsBytes(page).length, gzip(JSON.writeValueAsBytes(page)).length,
+                CBOR.writeValueAsBytes(page).length, SMILE.writeValueAsBytes(page).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        switch (format) {
+            case "json":
+                return JSON.writeValueAsBytes(page);
+            case "json-gzip":
+                return gzip(JSON.writeValueAsBytes(page));
+            case "cbor":
+                return CBOR.writeValueAsBytes(page);
+            case "smile":
+                return SMILE.writeValueAsBytes(page);
+            default:
+                throw new IllegalArgumentException("unknown format " + format);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buffer.toByteArray();
+    }
+
+    // posts shaped like the seeded dataset: 6 word titles, 60 word contents, 2 categories, 15 word comments
+    private static List<PostResponse> page(int size, int comments, Random random) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PostResponse> posts = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Set<CategoryResponse> categories = new LinkedHashSet<>();
+            for (int c = 0; c < BlogDataset.CATEGORIES_PER_POST; c++) {
+                int category = random.nextInt(BlogDataset.CATEGORIES) + 1;
+                categories.add(new CategoryResponse((long) category, BlogDataset.categoryName(category),
+                        "benchmark category " + category));
+            }
+
+            List<CommentResponse> commentResponses = new ArrayList<>(comments);
+            for (long c = 0; c < comments; c++) {
+                commentResponses.add(new CommentResponse(id * 1000 + c, words(random, 15), "reader" + c,
+                        now.minusMinutes(c), null, id));
+            }
+
+            posts.add(new PostResponse(id, words(random, 6), words(random, 60), now.minusHours(id), now,
+                    categories, commentResponses));
+        }
+        return posts;
+    }
+
+    private static String words(Random random, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BlogDataset.word((int) Math.pow(BlogDataset.VOCABULARY, random.nextDouble()) - 1))
+                .collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,116 @@
+package com.blog.repository;
+
+import com.blog.benchmark.BlogDataset;
+import com.blog.entity.Comment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path queries with and without the indexes of V2__hot_path_indexes.sql
+ *
+ * indexed=false drops the V2 indexes after seeding, which gives the schema as it was
+ * (primary keys, unique category name and the indexes H2 creates for foreign keys).
+ * The H2 plan of each query is printed at the start of each trial.
+ *
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="IndexBenchmark -p rows=1000000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class IndexBenchmark {
+
+    private static final List<String> V2_INDEXES = List.of(
+            "idx_comments_post_created", "idx_posts_created", "idx_post_categories_category");
+
+    private static final Map<String, String> PLANS = Map.of(
+            "comments of a post",
+            "SELECT c.id, c.content FROM comments c WHERE c.post_id = 42 ORDER BY c.created_at",
+            "newest posts page",
+            "SELECT p.id FROM posts p ORDER BY p.created_at DESC, p.id DESC LIMIT 10 OFFSET 1000",
+            "posts of a category",
+            "SELECT p.id FROM posts p JOIN post_categories pc ON pc.post_id = p.id " +
+                    "JOIN categories c ON c.id = pc.category_id WHERE c.name = 'category-3' " +
+                    "ORDER BY p.created_at DESC LIMIT 10");
+
+    private static final Sort NEWEST_FIRST = Sort.by("createdAt").descending();
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean indexed;
+
+    private BlogDataset dataset;
+    private PostRepository postRepository;
+    private CommentRepository commentRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = BlogDataset.start(rows);
+        postRepository = dataset.bean(PostRepository.class);
+        commentRepository = dataset.bean(CommentRepository.class);
+
+        JdbcTemplate jdbc = dataset.bean(JdbcTemplate.class);
+        if (!indexed) {
+            V2_INDEXES.forEach(index -> jdbc.execute("DROP INDEX " + index));
+        }
+        jdbc.execute("ANALYZE");
+
+        System.out.printf("%n--- query plans, rows=%d, indexed=%s ---%n", rows, indexed);
+        PLANS.forEach((name, sql) -> System.out.printf("%s:%n%s%n%n",
+                name, jdbc.queryForObject("EXPLAIN " + sql, String.class)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataset.close();
+    }
+
+    @Benchmark
+    public List<Comment> commentsOfPost() {
+        long postId = ThreadLocalRandom.current().nextLong(1, rows + 1);
+        return commentRepository.findByPostIdOrderByCreatedAtAsc(postId);
+    }
+
+    @Benchmark
+    public Page<Long> newestPostsPage() {
+        int page = ThreadLocalRandom.current().nextInt(0, 100);
+        return postRepository.findPageIds(PageRequest.of(page, 10, NEWEST_FIRST));
+    }
+
+    @Benchmark
+    public Page<Long> postsOfCategory() {
+        int category = ThreadLocalRandom.current().nextInt(1, BlogDataset.CATEGORIES + 1);
+        Pageable firstPage = PageRequest.of(0, 10, NEWEST_FIRST);
+        return postRepository.findPageIdsByCategoryName(BlogDataset.categoryName(category), firstPage);
+    }
+
+    @Benchmark
+    public List<Long> feedFirstWindow() {
+        return postRepository.findFeedFirst(PageRequest.of(0, 11));
+    }
+}
@@ -0,0 +1,141 @@
+package com.blog.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The old LIKE '%kw%' search against the inverted index, on 100k posts
+ *
+ * LIKE matches the raw string, so it is only measured on single terms;
+ * invertedIndexAllTerms adds a second, common term to the same query.
+ *
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="SearchBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final int POSTS = 100_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_POST = 80;
+
+    // same predicate PostRepository.searchPosts generated
+    private static final String LIKE_QUERY = "SELECT id, title, content FROM posts WHERE " +
+            "LOWER(title) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(content) LIKE LOWER(CONCAT('%', ?, '%'))";
+
+    // a common, a rare and a very rare term
+    @Param({"w120", "w950", "w4000"})
+    private String term;
+
+    private Connection connection;
+    private SearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        index = new SearchIndex();
+        connection = DriverManager.getConnection("jdbc:h2:mem:searchbench", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE posts (id BIGINT PRIMARY KEY, title VARCHAR(100), content TEXT)");
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO posts VALUES (?, ?, ?)")) {
+            for (long id = 1; id <= POSTS; id++) {
+                String title = words(random, 6);
+                String content = words(random, WORDS_PER_POST);
+                insert.setLong(1, id);
+                insert.setString(2, title);
+                insert.setString(3, content);
+                insert.addBatch();
+                index.index(id, title, content);
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int likeScan() throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(LIKE_QUERY)) {
+            select.setString(1, term);
+            select.setString(2, term);
+            return drain(select);
+        }
+    }
+
+    @Benchmark
+    public int invertedIndex() throws SQLException {
+        return searchAndLoad(term);
+    }
+
+    @Benchmark
+    public int invertedIndexAllTerms() throws SQLException {
+        return searchAndLoad(term + " w7");
+    }
+
+    // ranking plus loading the first page of posts, which is what PostService.searchPosts does
+    private int searchAndLoad(String query) throws SQLException {
+        SearchResult result = index.search(query, SearchOperator.AND, 0, 10);
+        if (result.getHits().isEmpty()) {
+            return 0;
+        }
+
+        String ids = result.getHits().stream()
+                .map(hit -> String.valueOf(hit.getPostId()))
+                .collect(Collectors.joining(","));
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, title, content FROM posts WHERE id IN (" + ids + ")")) {
+            return drain(select);
+        }
+    }
+
+    private static int drain(PreparedStatement select) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = select.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getString(3);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    // log-uniform word choice gives a few very common words and a long tail, like real text
+    private static String words(Random random, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "w" + ((int) Math.pow(VOCABULARY, random.nextDouble()) - 1))
+                .collect(Collectors.joining(" "));
+    }
+}
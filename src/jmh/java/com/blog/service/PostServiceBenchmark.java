@@ -0,0 +1,102 @@
+package com.blog.service;
+
+import com.blog.benchmark.BlogDataset;
+import com.blog.dtos.PostResponse;
+import com.blog.entity.Post;
+import com.blog.repository.PostRepository;
+import com.blog.search.SearchOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PostService hot paths against seeded datasets of 10k, 100k and 1M posts
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class PostServiceBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private BlogDataset dataset;
+    private PostService postService;
+    private Post loadedPost;
+    private Pageable shallowPage;
+    private Pageable deepPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataset = BlogDataset.start(rows);
+        postService = dataset.bean(PostService.class);
+
+        Sort newestFirst = Sort.by("createdAt").descending();
+        shallowPage = PageRequest.of(0, PAGE_SIZE, newestFirst);
+        deepPage = PageRequest.of(rows / PAGE_SIZE - 1, PAGE_SIZE, newestFirst);
+
+        // a detached post with its associations initialized, to measure the conversion alone
+        PostRepository postRepository = dataset.bean(PostRepository.class);
+        loadedPost = dataset.bean(TransactionTemplate.class).execute(status -> {
+            List<Long> ids = List.of((long) rows / 2);
+            postRepository.findWithCommentsByIdIn(ids);
+            return postRepository.findWithCategoriesByIdIn(ids).get(0);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataset.close();
+    }
+
+    @Benchmark
+    public PostResponse convertToResponse() {
+        return postService.convertToResponse(loadedPost);
+    }
+
+    @Benchmark
+    public Page<PostResponse> getAllPostsShallowPage() {
+        return postService.getAllPosts(shallowPage);
+    }
+
+    @Benchmark
+    public Page<PostResponse> getAllPostsDeepPage() {
+        return postService.getAllPosts(deepPage);
+    }
+
+    @Benchmark
+    public Page<PostResponse> searchPosts() {
+        String keyword = BlogDataset.word(ThreadLocalRandom.current().nextInt(50, 500));
+        return postService.searchPosts(keyword, SearchOperator.AND, shallowPage);
+    }
+
+    @Benchmark
+    public Page<PostResponse> getPostsByCategory() {
+        String category = BlogDataset.categoryName(ThreadLocalRandom.current().nextInt(1, BlogDataset.CATEGORIES + 1));
+        return postService.getPostsByCategory(category, shallowPage);
+    }
+}
@@ -0,0 +1,20 @@
+package com.blog.cache;
+
+import com.blog.dtos.ResourceVersion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * A page of the post listing serialized once, see HomepageFeedCache
+ */
+@Data
+@AllArgsConstructor
+public class FeedPage {
+
+    // the JSON body, exactly as the message converter would write the page
+    private byte[] json;
+    private ResourceVersion version;
+    private Set<Long> postIds;
+}
@@ -0,0 +1,128 @@
+package com.blog.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * The first pages of the default post listing (GET /api/posts, createdAt desc, size 10),
+ * kept as serialized JSON and written to the response as they are
+ *
+ * - a page is built on the first request after it was dropped, once for all the
+ *   requests arriving meanwhile (SingleFlight), and served from memory until then
+ * - a write touching a post of a page drops that page only (post update, comments);
+ *   creating, deleting or importing posts shifts every page and drops them all
+ * - a page built while a write committed is served to its requests but not kept,
+ *   so a page never outlives a change it does not show
+ *
+ * Writers call postChanged / invalidateAll once their transaction is committed.
+ * Hits are published as blog.cache.homepage.hits, builds as blog.single-flight.* (name=homepage).
+ */
+@Component
+@Slf4j
+public class HomepageFeedCache implements MeterBinder {
+
+    public static final int PAGE_SIZE = 10;
+    private static final Sort ORDER = Sort.by("createdAt").descending();
+
+    private final int pages;
+    // a new Slot replaces the old one on every invalidation, a build only publishes over the slot it started from
+    private final AtomicReferenceArray<Slot> slots;
+    private final SingleFlight<Integer, FeedPage> builds;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    public HomepageFeedCache(@Value("${blog.cache.homepage.pages:3}") int pages,
+                             @Value("${blog.cache.homepage.build-timeout:5s}") Duration buildTimeout) {
+        this.pages = pages;
+        this.slots = new AtomicReferenceArray<>(pages);
+        for (int page = 0; page < pages; page++) {
+            slots.set(page, new Slot(null));
+        }
+        this.builds = new SingleFlight<>("homepage", buildTimeout);
+        log.info("Homepage feed cache enabled: first {} pages", pages);
+    }
+
+    /**
+     * Whether this page of the listing is one of the cached pages
+     */
+    public boolean covers(Pageable pageable) {
+        return pageable.getPageNumber() < pages
+                && pageable.getPageSize() == PAGE_SIZE
+                && ORDER.equals(pageable.getSort());
+    }
+
+    /**
+     * Return the cached page, or build it once with the builder and keep it
+     *
+     * @throws com.blog.exception.ServiceUnavailableException when waiting for the build times out
+     */
+    public FeedPage get(int page, Supplier<FeedPage> builder) {
+        FeedPage cached = slots.get(page).page;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        return builds.load(page, key -> {
+            Slot before = slots.get(key);
+            if (before.page != null) {
+                return before.page;
+            }
+            FeedPage built = builder.get();
+            slots.compareAndSet(key, before, new Slot(built));
+            return built;
+        });
+    }
+
+    /**
+     * A post was updated or its comments changed: drop the pages showing it
+     * pages not built yet are dropped too, a build in progress may include the post
+     */
+    public void postChanged(Long postId) {
+        for (int page = 0; page < pages; page++) {
+            FeedPage cached = slots.get(page).page;
+            if (cached == null || cached.getPostIds().contains(postId)) {
+                invalidate(page);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (int page = 0; page < pages; page++) {
+            invalidate(page);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("blog.cache.homepage.hits", hits, AtomicLong::get)
+                .description("Listing pages served already serialized")
+                .register(registry);
+        builds.bindTo(registry);
+    }
+
+    private void invalidate(int page) {
+        slots.set(page, new Slot(null));
+        builds.forget(page);
+    }
+
+    private static final class Slot {
+
+        private final FeedPage page;
+
+        private Slot(FeedPage page) {
+            this.page = page;
+        }
+    }
+}
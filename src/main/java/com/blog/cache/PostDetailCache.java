@@ -0,0 +1,142 @@
+package com.blog.cache;
+
+import com.blog.dtos.CommentResponse;
+import com.blog.dtos.PostResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of full PostResponse objects, keyed by post id
+ *
+ * - bounded by weight, an estimate of the characters the response holds,
+ *   so one post with thousands of comments cannot push out hundreds of small ones
+ * - frequency aware eviction (Caffeine's W-TinyLFU): hot posts stay cached,
+ *   a scan over many posts read once does not flush them
+ * - entries expire after a TTL, as a safety net for missed invalidations
+ *
+ * Misses go through a SingleFlight: when a hot post is missing, concurrent requests for it
+ * share one database load instead of running one each (blog.single-flight.*, name=postDetail).
+ *
+ * Entries are invalidated by PostService and CommentService once a write touching the post is committed.
+ * Hits, misses, evictions and size are published as cache.* metrics (cache=postDetail).
+ */
+@Component
+@Slf4j
+public class PostDetailCache implements MeterBinder {
+
+    // fixed cost per entry, so a cache full of tiny posts is still bounded
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final Cache<Long, PostResponse> cache;
+    private final SingleFlight<Long, PostResponse> loads;
+
+    // a stamp per post being loaded, removed by the invalidation of that post:
+    // tells a load whether a write on its post raced it, loads of other posts are not affected
+    private final ConcurrentMap<Long, Object> loadStamps = new ConcurrentHashMap<>();
+
+    public PostDetailCache(@Value("${blog.cache.post-detail.max-weight:20000000}") long maxWeight,
+                           @Value("${blog.cache.post-detail.ttl:10m}") Duration ttl,
+                           @Value("${blog.cache.post-detail.load-timeout:5s}") Duration loadTimeout) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long id, PostResponse post) -> weigh(post))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.loads = new SingleFlight<>("postDetail", loadTimeout);
+        log.info("Post detail cache enabled: max weight {}, ttl {}", maxWeight, ttl);
+    }
+
+    /**
+     * Return the cached post, or load it once with the loader and cache it
+     * concurrent misses on the same post wait for the same load and share its result,
+     * exceptions thrown by the loader are propagated to all of them and nothing is cached
+     *
+     * @throws com.blog.exception.ServiceUnavailableException when waiting for the load times out
+     */
+    public PostResponse get(Long postId, Function<Long, PostResponse> loader) {
+        PostResponse cached = cache.getIfPresent(postId);
+        if (cached != null) {
+            return cached;
+        }
+        return loads.load(postId, id -> {
+            Object stamp = new Object();
+            loadStamps.put(id, stamp);
+            try {
+                PostResponse post = loader.apply(id);
+                cache.put(id, post);
+                // the post was invalidated during the load: it may predate the write, don't keep it
+                if (!loadStamps.remove(id, stamp)) {
+                    cache.invalidate(id);
+                }
+                return post;
+            } finally {
+                loadStamps.remove(id, stamp);
+            }
+        });
+    }
+
+    // the cached post or null, without loading
+    public PostResponse getIfPresent(Long postId) {
+        return cache.getIfPresent(postId);
+    }
+
+    public void invalidate(Long postId) {
+        loadStamps.remove(postId);
+        loads.forget(postId);
+        cache.invalidate(postId);
+    }
+
+    public void invalidateAll() {
+        loadStamps.clear();
+        loads.forgetAll();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Hit, miss, load and eviction counts since startup
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public Cache<Long, PostResponse> getNativeCache() {
+        return cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "postDetail");
+        loads.bindTo(registry);
+    }
+
+    private static int weigh(PostResponse post) {
+        long weight = ENTRY_OVERHEAD + length(post.getTitle()) + length(post.getContent());
+        if (post.getComments() != null) {
+            for (CommentResponse comment : post.getComments()) {
+                weight += ENTRY_OVERHEAD + length(comment.getContent()) + length(comment.getAuthorName());
+            }
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
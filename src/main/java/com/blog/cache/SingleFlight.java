@@ -0,0 +1,139 @@
+package com.blog.cache;
+
+import com.blog.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent loads of the same key into one
+ *
+ * The first caller for a key (the leader) runs the loader on its own thread, callers
+ * arriving while it runs wait for its result instead of loading again. The value, or the
+ * exception thrown by the loader, is handed to every waiter. A waiter gives up after the
+ * timeout with a ServiceUnavailableException (503); the leader keeps loading.
+ * Nothing is kept once the load is over, caching the result is up to the caller.
+ *
+ * Metrics (tag name): blog.single-flight.loads (loader runs), .coalesced (callers served
+ * by another caller's load), .timeouts, .failures, and the .in-flight gauge.
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final Duration timeout;
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public SingleFlight(String name, Duration timeout) {
+        this.name = name;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Load the value of the key, or wait for the load already running for it
+     *
+     * @throws ServiceUnavailableException when waiting for another caller's load times out
+     */
+    public V load(K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(key, running);
+        }
+
+        loads.incrementAndGet();
+        try {
+            V value = loader.apply(key);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            failures.incrementAndGet();
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Callers arriving from now on start a new load instead of joining the running one
+     * meant for invalidation: the running load may have read the data before the change
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("blog.single-flight.loads", loads, AtomicLong::get)
+                .description("Loads run")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("blog.single-flight.coalesced", coalesced, AtomicLong::get)
+                .description("Calls served by a load already in flight")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("blog.single-flight.timeouts", timeouts, AtomicLong::get)
+                .description("Calls that gave up waiting for a load in flight")
+                .tag("name", name)
+                .register(registry);
+        FunctionCounter.builder("blog.single-flight.failures", failures, AtomicLong::get)
+                .description("Loads that threw, the exception is passed to every waiter")
+                .tag("name", name)
+                .register(registry);
+        Gauge.builder("blog.single-flight.in-flight", inFlight, ConcurrentMap::size)
+                .tag("name", name)
+                .register(registry);
+    }
+
+    private V await(K key, CompletableFuture<V> running) {
+        try {
+            return running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // the leader's own exception, so every waiter fails the same way (404, 503, ...)
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            timeouts.incrementAndGet();
+            throw new ServiceUnavailableException(
+                    "Loading " + name + " " + key + " took longer than " + timeout.toMillis() + " ms", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while loading " + name + " " + key, ex);
+        }
+    }
+}
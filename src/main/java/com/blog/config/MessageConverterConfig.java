@@ -0,0 +1,29 @@
+package com.blog.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+
+/**
+ * Binary encodings of every response and request body, chosen by content negotiation
+ *
+ * - Accept / Content-Type: application/cbor
+ * - Accept / Content-Type: application/x-jackson-smile
+ * JSON stays the default. Both are added next to the JSON converter by Spring Boot,
+ * so the same DTOs and Jackson annotations apply. Streamed endpoints (export, threads)
+ * write their own format and are not negotiated.
+ */
+@Configuration
+public class MessageConverterConfig {
+
+    @Bean
+    public JacksonCborHttpMessageConverter cborHttpMessageConverter() {
+        return new JacksonCborHttpMessageConverter();
+    }
+
+    @Bean
+    public JacksonSmileHttpMessageConverter smileHttpMessageConverter() {
+        return new JacksonSmileHttpMessageConverter();
+    }
+}
@@ -0,0 +1,58 @@
+package com.blog.config;
+
+import com.blog.search.SearchIndex;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Metrics of the services, exposed with the rest on /actuator/metrics and /actuator/prometheus
+ *
+ * Services annotated with @Timed get a "blog.service" timer per method, tagged with
+ * the HTTP route that called them, so the cost of a route can be split per service call.
+ * Percentiles and histograms are configured in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // scheduled tasks, background writers, startup
+    private static final String NO_ROUTE = "none";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry, MetricsConfig::tags);
+    }
+
+    @Bean
+    public MeterBinder searchIndexMetrics(SearchIndex searchIndex) {
+        return registry -> Gauge.builder("blog.search.index.documents", searchIndex, SearchIndex::size)
+                .description("Posts in the in-memory search index")
+                .register(registry);
+    }
+
+    private static Tags tags(ProceedingJoinPoint joinPoint) {
+        return Tags.of(
+                "class", joinPoint.getStaticPart().getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getStaticPart().getSignature().getName(),
+                "route", currentRoute());
+    }
+
+    // the matched pattern (e.g. /api/posts/{id}), the same value as the uri tag of http.server.requests
+    private static String currentRoute() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NO_ROUTE;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : NO_ROUTE;
+    }
+}
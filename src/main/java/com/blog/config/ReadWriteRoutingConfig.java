@@ -0,0 +1,73 @@
+package com.blog.config;
+
+import com.blog.datasource.ReadWriteRoutingDataSource;
+import com.blog.datasource.ReplicaCacheModeJpaDialect;
+import com.blog.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read/write routing, enabled with blog.datasource.replica.enabled=true
+ *
+ * The only DataSource bean is a ReadWriteRoutingDataSource (a LazyConnectionDataSourceProxy):
+ * its target is the primary pool, built from spring.datasource.* as Boot would, and its
+ * read-only data source is the ReplicaDataSource. The pools are not beans themselves.
+ * The proxy only fetches a physical connection on first use, after the transaction
+ * manager has marked it read-only, so:
+ * - @Transactional(readOnly = true) reads run on a replica
+ * - every other transaction, and work outside transactions, runs on the primary
+ * Flyway, JdbcTemplate and the JPA layer all go through the proxy.
+ *
+ * Caches are only filled from the primary, so a lagging replica can't put back data a write
+ * has just invalidated: PostService loads the post detail and listing caches in
+ * ReplicaRouting.primaryOnly(), and replica sessions only read the Hibernate caches
+ * (ReplicaCacheModeJpaDialect).
+ */
+@Configuration
+@ConditionalOnProperty(name = "blog.datasource.replica.enabled", havingValue = "true")
+public class ReadWriteRoutingConfig {
+
+    @Bean
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties,
+                                                 Environment environment,
+                                                 @Value("${blog.datasource.replica.urls}") List<String> urls,
+                                                 @Value("${blog.datasource.replica.username:sa}") String username,
+                                                 @Value("${blog.datasource.replica.password:}") String password,
+                                                 @Value("${blog.datasource.replica.max-pool-size:10}") int maxPoolSize,
+                                                 @Value("${blog.datasource.replica.connection-timeout:1s}") Duration connectionTimeout) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // the pool settings Boot would have applied to its own dataSource
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        ReplicaDataSource replicas = new ReplicaDataSource(primary, urls, username, password, maxPoolSize, connectionTimeout);
+        return new ReadWriteRoutingDataSource(primary, replicas);
+    }
+
+    // static: a post processor is created before the other beans of this configuration
+    @Bean
+    public static BeanPostProcessor replicaCacheModePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JpaTransactionManager transactionManager) {
+                    transactionManager.setJpaDialect(new ReplicaCacheModeJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
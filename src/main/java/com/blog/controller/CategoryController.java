@@ -31,6 +31,13 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    // resolve several categories by name in one call, e.g. /resolve?names=java,spring
+    @GetMapping("/resolve")
+    public ResponseEntity<List<CategoryResponse>> resolveCategories(@RequestParam List<String> names) {
+        List<CategoryResponse> categories = categoryService.resolveByNames(names);
+        return ResponseEntity.ok(categories);
+    }
+
     // get one by {id}
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id) {
@@ -39,7 +46,7 @@ public class CategoryController {
     }
 
     // update category by id
-    @PutMapping
+    @PutMapping("/{id}")
     public ResponseEntity<CategoryResponse> updateCategory(@PathVariable Long id,
                                                            @Valid @RequestBody CategoryRequest request) {
         CategoryResponse response = categoryService.updateCategory(id, request);
@@ -1,17 +1,23 @@
 package com.blog.controller;
 
+import com.blog.dtos.CommentBatchResponse;
 import com.blog.dtos.CommentRequest;
 import com.blog.dtos.CommentResponse;
 import com.blog.service.CommentService;
+import com.blog.service.CommentWriteBehind;
+import com.blog.service.KeysetCursor;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -21,25 +27,73 @@ import java.util.List;
 public class CommentController {
 
     private final CommentService commentService;
+    private final CommentWriteBehind commentWriteBehind;
 
     /**
      * Creat a comment on a post
+     * in write-behind mode: 201 once its group is committed, or 202 once queued (see CommentWriteBehind)
      */
     @PostMapping
     public ResponseEntity<CommentResponse> createComment(@Valid @RequestBody CommentRequest request) {
+        if (commentWriteBehind.isEnabled()) {
+            CommentResponse response = commentWriteBehind.submit(request);
+            HttpStatus status = commentWriteBehind.getAck() == CommentWriteBehind.Ack.ACCEPTED
+                    ? HttpStatus.ACCEPTED
+                    : HttpStatus.CREATED;
+            return new ResponseEntity<>(response, status);
+        }
+
         CommentResponse response = commentService.createComment(request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
 
+    /**
+     * Create many comments at once (imports)
+     * 201 when every item was created, 207 with the rejected items otherwise
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<CommentBatchResponse> createComments(@RequestBody List<CommentRequest> requests) {
+        CommentBatchResponse response = commentService.createComments(requests);
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(response, status);
+    }
+
+
     /**
      * Get comments by post id
+     * deprecated: only the oldest CommentService.MAX_UNPAGED_COMMENTS, use /post/{postId}/thread
      */
     @GetMapping("/post/{postId}")
     public ResponseEntity<List<CommentResponse>> getCommentsByPostId(@PathVariable Long postId) {
         List<CommentResponse> comments = commentService.getCommentsByPostId(postId);
 
-        return ResponseEntity.ok(comments);
+        return ResponseEntity.ok()
+                .header("Deprecation", "true")
+                .header(HttpHeaders.LINK, "</api/comments/post/" + postId + "/thread>; rel=\"successor-version\"")
+                .body(comments);
+    }
+
+
+    /**
+     * Comment thread of a post, one window at a time, streamed
+     * GET /api/comments/post/{postId}/thread?order=asc|desc&size=50&cursor={nextCursor}
+     * order=asc is oldest first (default), desc newest first; pass the same order with the cursor
+     */
+    @GetMapping("/post/{postId}/thread")
+    public ResponseEntity<StreamingResponseBody> getCommentThread(@PathVariable Long postId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "50") int size,
+                                                                  @RequestParam(defaultValue = "asc") String order) {
+        // validated before the response starts, so errors still get their status
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        boolean newestFirst = order.equalsIgnoreCase("desc");
+        commentService.requirePost(postId);
+
+        StreamingResponseBody body = out -> commentService.streamThread(postId, after, size, newestFirst, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
 
@@ -83,9 +137,9 @@ public class CommentController {
 
 
     // get comment count for a post
-    @GetMapping("/{id}")
-    public ResponseEntity<Long> getCommentCount(@PathVariable Long id) {
-        Long count = commentService.getCommentCountByPostId(id);
+    @GetMapping("/post/{postId}/count")
+    public ResponseEntity<Long> getCommentCount(@PathVariable Long postId) {
+        Long count = commentService.getCommentCountByPostId(postId);
         return ResponseEntity.ok(count);
 
     }
@@ -1,8 +1,17 @@
 package com.blog.controller;
 
+import com.blog.cache.FeedPage;
+import com.blog.cache.HomepageFeedCache;
+import com.blog.dtos.CursorPageResponse;
+import com.blog.dtos.ImportProgressResponse;
 import com.blog.dtos.PostRequest;
 import com.blog.dtos.PostResponse;
+import com.blog.dtos.PostSummaryResponse;
+import com.blog.dtos.ResourceVersion;
+import com.blog.dtos.TrendingPostResponse;
 import com.blog.entity.Category;
+import com.blog.search.SearchOperator;
+import com.blog.service.PostImportService;
 import com.blog.service.PostService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,10 +20,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.query.Param;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @RestController
@@ -22,19 +39,25 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PostController {
 
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
     private final PostService postService;
+    private final PostImportService postImportService;
+    private final HomepageFeedCache homepageFeedCache;
 
     @PostMapping
-    public ResponseEntity<PostResponse> createPost(PostRequest request) {
+    public ResponseEntity<PostResponse> createPost(@Valid @RequestBody PostRequest request) {
         PostResponse response = postService.createPost(request);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // the first pages of the default listing are written already serialized (see HomepageFeedCache)
     @GetMapping
-    public ResponseEntity<Page<PostResponse>> getAllPost(@RequestParam(defaultValue = "0") int page,
-                                                         @RequestParam(defaultValue = "10") int size,
-                                                         @RequestParam(defaultValue = "createdAt") String sortBy,
-                                                         @RequestParam(defaultValue = "desc") String sortDirection) {
+    public ResponseEntity<?> getAllPost(@RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "10") int size,
+                                        @RequestParam(defaultValue = "createdAt") String sortBy,
+                                        @RequestParam(defaultValue = "desc") String sortDirection,
+                                        WebRequest webRequest) {
 
         // create sort object
         Sort sort = sortDirection.equalsIgnoreCase("asc")
@@ -44,23 +67,128 @@ public class PostController {
         // create pageable object
         Pageable pageable = PageRequest.of(page, size, sort);
 
+        if (homepageFeedCache.covers(pageable) && prefersJson(webRequest)) {
+            FeedPage cached = postService.getHomepagePage(pageable);
+            if (notModified(webRequest, cached.getVersion())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cached.getJson());
+        }
+
+        if (notModified(webRequest, postService.getPageVersion(pageable))) {
+            return null;
+        }
+
         Page<PostResponse> posts = postService.getAllPosts(pageable);
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * summary view of the same listing: excerpt and comment count instead of content and comments
+     * GET /api/posts?view=summary
+     */
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<Page<PostSummaryResponse>> getAllPostSummaries(@RequestParam(defaultValue = "0") int page,
+                                                                         @RequestParam(defaultValue = "10") int size,
+                                                                         @RequestParam(defaultValue = "createdAt") String sortBy,
+                                                                         @RequestParam(defaultValue = "desc") String sortDirection,
+                                                                         WebRequest webRequest) {
+        Sort sort = sortDirection.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+
+        if (notModified(webRequest, postService.getPageVersion(pageable))) {
+            return null;
+        }
+
+        Page<PostSummaryResponse> posts = postService.getPostSummaries(pageable);
+        return ResponseEntity.ok(posts);
+    }
+
+    /**
+     * cursor mode for infinite scroll clients: no total count, latency stays flat at any depth
+     * GET /api/posts/feed?cursor={nextCursor}&size=10
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getPostFeed(@RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = "10") int size,
+                                                                        WebRequest webRequest) {
+        if (notModified(webRequest, postService.getFeedVersion(cursor, size))) {
+            return null;
+        }
+
+        CursorPageResponse<PostResponse> feed = postService.getPostFeed(cursor, size);
+        return ResponseEntity.ok(feed);
+    }
+
+    /**
+     * most viewed posts of the last hours, from the in-memory ranking
+     * GET /api/posts/trending?limit=10 (at most blog.trending.capacity)
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingPostResponse>> getTrendingPosts(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(postService.getTrendingPosts(limit));
+    }
+
     /**
      * alternative: get all post without pagination
      * GET /api/posts/all
      */
-    @GetMapping
+    @GetMapping("/all")
     public ResponseEntity<List<PostResponse>> getAllPostsWithoutPagination() {
         List<PostResponse> responseList = postService.getAllPosts();
         return ResponseEntity.ok(responseList);
     }
 
+    /**
+     * full dump of all posts as NDJSON, streamed in bounded memory
+     * GET /api/posts/export?since={last id received} to resume
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPosts(@RequestParam(defaultValue = "0") Long since) {
+        StreamingResponseBody body = out -> postService.exportPosts(since, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * bulk import from a JSON array or NDJSON stream of PostRequest records
+     * the body is parsed while it is uploaded, the final report is returned at the end
+     * an import stopped by malformed input answers 422, with the report of what was imported before
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportProgressResponse> importPosts(InputStream body) {
+        ImportProgressResponse report = postImportService.importPosts(body);
+        if (PostImportService.FAILED.equals(report.getStatus())) {
+            return ResponseEntity.unprocessableEntity().body(report);
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // progress (processed, imported, throughput) of running and recent imports
+    @GetMapping("/import")
+    public ResponseEntity<List<ImportProgressResponse>> getImports() {
+        return ResponseEntity.ok(postImportService.getRecentJobs());
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportProgressResponse> getImportProgress(@PathVariable String jobId) {
+        return ResponseEntity.ok(postImportService.getProgress(jobId));
+    }
+
     // get one post by id
+    // answers 304 from the post version alone when the client copy is still current
     @GetMapping("/{id}")
-    public ResponseEntity<PostResponse> getPostById(@PathVariable Long id) {
+    public ResponseEntity<PostResponse> getPostById(@PathVariable Long id, WebRequest webRequest) {
+        if (notModified(webRequest, postService.getPostVersion(id))) {
+            return null;
+        }
+
         PostResponse post = postService.getPostById(id);
         return ResponseEntity.ok(post);
     }
@@ -80,10 +208,17 @@ public class PostController {
         return ResponseEntity.noContent().build();
     }
 
-    // Search by keyword
+    // Search by keyword, ranked; operator=and requires every term, operator=or any of them
+    // size is at most PostService.MAX_SEARCH_SIZE
     @GetMapping("/search")
-    public ResponseEntity<List<PostResponse>> searchPost(@RequestParam(required = false) String keyword) {
-        List<PostResponse> posts = postService.searchPosts(keyword != null ? keyword : "");
+    public ResponseEntity<Page<PostResponse>> searchPost(@RequestParam(required = false) String keyword,
+                                                         @RequestParam(defaultValue = "and") String operator,
+                                                         @RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "10") int size) {
+        int pageSize = Math.max(1, Math.min(size, PostService.MAX_SEARCH_SIZE));
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize);
+        Page<PostResponse> posts = postService.searchPosts(keyword != null ? keyword : "",
+                SearchOperator.from(operator), pageable);
         return ResponseEntity.ok(posts);
     }
 
@@ -91,9 +226,70 @@ public class PostController {
     @GetMapping("/category/{categoryName}")
     public ResponseEntity<Page<PostResponse>> getPostByCategory(@PathVariable String categoryName,
                                                                 @RequestParam(defaultValue = "0") int page,
-                                                                @RequestParam(defaultValue = "10") int size) {
+                                                                @RequestParam(defaultValue = "10") int size,
+                                                                WebRequest webRequest) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        if (notModified(webRequest, postService.getCategoryPageVersion(categoryName, pageable))) {
+            return null;
+        }
+
         Page<PostResponse> posts = postService.getPostsByCategory(categoryName, pageable);
         return ResponseEntity.ok(posts);
     }
+
+    // filter by category, summary view
+    @GetMapping(value = "/category/{categoryName}", params = "view=summary")
+    public ResponseEntity<Page<PostSummaryResponse>> getPostSummariesByCategory(@PathVariable String categoryName,
+                                                                                @RequestParam(defaultValue = "0") int page,
+                                                                                @RequestParam(defaultValue = "10") int size,
+                                                                                WebRequest webRequest) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        if (notModified(webRequest, postService.getCategoryPageVersion(categoryName, pageable))) {
+            return null;
+        }
+
+        Page<PostSummaryResponse> posts = postService.getPostSummariesByCategory(categoryName, pageable);
+        return ResponseEntity.ok(posts);
+    }
+
+    /**
+     * Whether JSON is the format the client prefers, the cached pages are JSON
+     * the accepted types are ranked by quality, then concrete before wildcard; the first one
+     * we can produce decides, and a wildcard gets JSON like from the default converter
+     */
+    private static boolean prefersJson(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+                .thenComparing(MediaType::isWildcardType)
+                .thenComparing(MediaType::isWildcardSubtype));
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return true;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_CBOR) || type.isCompatibleWith(SMILE)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Conditional GET: compares the version with If-None-Match / If-Modified-Since
+     * and sets ETag and Last-Modified on the response. When it returns true the
+     * 304 is already prepared and the handler returns without a body.
+     */
+    private static boolean notModified(WebRequest webRequest, ResourceVersion version) {
+        if (version.getLastModified() == null) {
+            return webRequest.checkNotModified(version.getEtag());
+        }
+        long lastModified = version.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return webRequest.checkNotModified(version.getEtag(), lastModified);
+    }
 }
@@ -0,0 +1,89 @@
+package com.blog.counter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of posts per category, kept in memory
+ *
+ * PostService and PostImportService adjust the counts once their writes are committed
+ * (categories added and removed), so reads never run a GROUP BY. The counts are loaded
+ * at startup and reconciled periodically against post_categories, which corrects any
+ * drift (e.g. a write committing while a reconcile runs, or rows changed outside the app).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryPostCounts {
+
+    // served by the (category_id, post_id) index, the posts table is not read
+    private static final String COUNT_SQL =
+            "SELECT category_id, COUNT(*) FROM post_categories GROUP BY category_id";
+
+    private final Map<Long, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void increment(Collection<Long> categoryIds) {
+        categoryIds.forEach(id -> adjust(id, 1));
+    }
+
+    public void decrement(Collection<Long> categoryIds) {
+        categoryIds.forEach(id -> adjust(id, -1));
+    }
+
+    public void adjust(Long categoryId, long delta) {
+        counts.computeIfAbsent(categoryId, id -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /**
+     * Posts in the category, 0 for a category without posts
+     */
+    public long get(Long categoryId) {
+        AtomicLong count = counts.get(categoryId);
+        return count != null ? Math.max(count.get(), 0) : 0;
+    }
+
+    public void forget(Long categoryId) {
+        counts.remove(categoryId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${blog.categories.post-count-reconcile-interval-ms:300000}",
+            fixedDelayString = "${blog.categories.post-count-reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        Map<Long, Long> stored = new HashMap<>();
+        jdbcTemplate.query(COUNT_SQL, row -> {
+            stored.put(row.getLong(1), row.getLong(2));
+        });
+
+        int corrected = 0;
+        for (Map.Entry<Long, Long> entry : stored.entrySet()) {
+            AtomicLong count = counts.computeIfAbsent(entry.getKey(), id -> new AtomicLong());
+            if (count.getAndSet(entry.getValue()) != entry.getValue()) {
+                corrected++;
+            }
+        }
+        // categories without any post left
+        for (Map.Entry<Long, AtomicLong> entry : counts.entrySet()) {
+            if (!stored.containsKey(entry.getKey()) && entry.getValue().getAndSet(0) != 0) {
+                corrected++;
+            }
+        }
+
+        if (corrected > 0) {
+            log.info("Reconciled post counts of {} categories ({} corrected)", stored.size(), corrected);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.blog.counter;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains posts.comment_count without serializing writers on the post row
+ *
+ * Comment writes only add to an in-memory striped counter. The deltas are
+ * flushed periodically as one JDBC batch of "comment_count + delta" updates,
+ * so a comment storm on one post costs one row update per flush interval.
+ *
+ * The count of a post is its stored value plus what is still pending here. It is not
+ * exact: a read racing a flush can miss or count twice the deltas of that flush for a
+ * moment. Lasting drift (deltas lost on a crash, comments changed outside the app, a
+ * comment committing while a reconcile runs) is corrected by reconcile(), at startup
+ * and periodically, which recomputes comment_count from the comments table.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommentCountBuffer {
+
+    private static final String INCREMENT_SQL =
+            "UPDATE posts SET comment_count = comment_count + ? WHERE id = ?";
+
+    // only the drifted rows are written; the counts are served by the (post_id, created_at) index
+    private static final String RECONCILE_SQL =
+            "UPDATE posts p SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id) " +
+            "WHERE comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id)";
+
+    private final StripedCounters counters = new StripedCounters();
+
+    // deltas drained but not committed yet, still counted by pending()
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public void increment(Long postId) {
+        counters.add(postId, 1);
+    }
+
+    public void decrement(Long postId) {
+        counters.add(postId, -1);
+    }
+
+    public void add(Long postId, long delta) {
+        counters.add(postId, delta);
+    }
+
+    /**
+     * Comments added or removed for this post that are not in posts.comment_count yet
+     */
+    public long pending(Long postId) {
+        return counters.pending(postId) + inFlight.getOrDefault(postId, 0L);
+    }
+
+    /**
+     * The post is gone, its pending delta has nothing to update
+     */
+    public void forget(Long postId) {
+        counters.forget(postId);
+    }
+
+    @Scheduled(fixedDelayString = "${blog.comments.count-flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<Long, Long> deltas = counters.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        inFlight.putAll(deltas);
+        try {
+            List<Object[]> updates = deltas.entrySet().stream()
+                    .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                    .collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INCREMENT_SQL, updates));
+            log.debug("Flushed comment count deltas for {} posts", deltas.size());
+        } catch (RuntimeException ex) {
+            log.error("Failed to flush comment counts for {} posts, will retry", deltas.size(), ex);
+            counters.restore(deltas);
+        } finally {
+            deltas.keySet().forEach(inFlight::remove);
+        }
+    }
+
+    /**
+     * Recompute the stored counts from the comments, after flushing what is pending
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${blog.comments.count-reconcile-interval-ms:300000}",
+            fixedDelayString = "${blog.comments.count-reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        flush();
+        int corrected = transactionTemplate.execute(status -> jdbcTemplate.update(RECONCILE_SQL));
+        if (corrected > 0) {
+            log.warn("Reconciled comment counts, {} posts had drifted", corrected);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,97 @@
+package com.blog.counter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pending counter deltas per id, waiting to be flushed to the database
+ *
+ * Each id has a LongAdder, which spreads concurrent increments over
+ * several cells, so a burst of increments on the same id does not make
+ * threads contend on one value (or on one database row).
+ * A flusher periodically drains the deltas and writes them in one batch.
+ * An id with nothing pending at a drain is released, so the map only
+ * holds the ids that changed since the previous drain.
+ */
+public class StripedCounters {
+
+    private final ConcurrentHashMap<Long, Counter> pending = new ConcurrentHashMap<>();
+
+    public void add(Long id, long delta) {
+        Counter counter = pending.get(id);
+        if (counter == null) {
+            counter = pending.computeIfAbsent(id, key -> new Counter());
+        }
+        counter.adder.add(delta);
+
+        // released by a drain meanwhile: move what is left of it to the current counter
+        if (counter.released) {
+            moveReleased(id, counter);
+        }
+    }
+
+    /**
+     * Delta accumulated for this id and not drained yet
+     */
+    public long pending(Long id) {
+        Counter counter = pending.get(id);
+        return counter != null ? counter.adder.sum() : 0;
+    }
+
+    /**
+     * Take every non zero delta, resetting the counters
+     *
+     * Each cell is read and reset atomically, so increments racing
+     * with the drain are either in the result or stay pending, never lost.
+     * Counters found at zero are removed; an increment racing with the removal
+     * is moved to a new counter, by the drain or by the adding thread.
+     */
+    public Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((id, counter) -> {
+            long delta = counter.adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(id, delta);
+            } else if (pending.remove(id, counter)) {
+                // released only once removed, so adding threads seeing it never find it in the map again
+                counter.released = true;
+                moveReleased(id, counter);
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * Put drained deltas back, e.g. when writing them failed
+     */
+    public void restore(Map<Long, Long> deltas) {
+        deltas.forEach(this::add);
+    }
+
+    public void forget(Long id) {
+        pending.remove(id);
+    }
+
+    /**
+     * Number of ids holding a counter
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    // each cell is taken by exactly one sumThenReset, so a late increment is moved once
+    private void moveReleased(Long id, Counter released) {
+        long late = released.adder.sumThenReset();
+        if (late != 0) {
+            add(id, late);
+        }
+    }
+
+    private static final class Counter {
+
+        private final LongAdder adder = new LongAdder();
+        private volatile boolean released;
+    }
+}
@@ -0,0 +1,36 @@
+package com.blog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * The application DataSource when read replicas are enabled (see ReadWriteRoutingConfig)
+ *
+ * A physical connection is only fetched on first use, after the transaction manager
+ * has marked it read-only: read-only transactions get a replica, everything else the primary.
+ * It owns both pools: it health checks the replicas and closes the pools on shutdown.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final HikariDataSource primary;
+    private final ReplicaDataSource replicas;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, ReplicaDataSource replicas) {
+        super(primary);
+        setReadOnlyDataSource(replicas);
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Scheduled(fixedDelayString = "${blog.datasource.replica.health-check-interval-ms:5000}")
+    public void checkReplicaHealth() {
+        replicas.checkHealth();
+    }
+
+    @Override
+    public void close() {
+        replicas.close();
+        primary.close();
+    }
+}
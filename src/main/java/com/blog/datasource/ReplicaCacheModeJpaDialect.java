@@ -0,0 +1,62 @@
+package com.blog.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps replica reads out of the Hibernate second-level and query caches
+ *
+ * A read-only transaction reads from a replica, which may lag behind the primary.
+ * Its session bypasses the caches (CacheMode.IGNORE), so the entries are only filled
+ * by writes and primary reads, and an invalidation can't be followed by a reload of
+ * the data it replaced. Not CacheMode.GET: a query cache miss in GET mode still stores
+ * the result. Reads that should be served from the caches run in ReplicaRouting.primaryOnly().
+ * Installed by ReadWriteRoutingConfig.
+ */
+public class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReplicaRouting.isPrimaryOnly()) {
+            return transactionData;
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        return new ReplicaTransactionData(transactionData, session, previousCacheMode);
+    }
+
+    // the session may outlive the transaction (open session in view)
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replicaData) {
+            replicaData.session.setCacheMode(replicaData.previousCacheMode);
+            super.cleanupTransaction(replicaData.transactionData);
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private static final class ReplicaTransactionData {
+
+        private final Object transactionData;
+        private final Session session;
+        private final CacheMode previousCacheMode;
+
+        private ReplicaTransactionData(Object transactionData, Session session, CacheMode previousCacheMode) {
+            this.transactionData = transactionData;
+            this.session = session;
+            this.previousCacheMode = previousCacheMode;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.blog.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read side of the read/write routing: one connection pool per replica
+ *
+ * - connections are taken round-robin from the healthy replicas
+ * - a replica failing to give a connection, or failing the periodic health check,
+ *   is taken out of the rotation until a health check succeeds again
+ * - without a healthy replica, or when ReplicaRouting says so (read-your-writes),
+ *   reads fall back to the primary
+ *
+ * Used as the read-only data source of ReadWriteRoutingDataSource, which checks its health
+ * and closes it. Not a bean of its own: the application has one DataSource, the routing one.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final DataSource primary;
+
+    public ReplicaDataSource(DataSource primary, List<String> urls, String username, String password,
+                             int maxPoolSize, Duration connectionTimeout) {
+        this.primary = primary;
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(urls.get(i));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(maxPoolSize);
+            // short: a replica that cannot hand out a connection quickly is failed over
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // a replica that is down at startup must not stop the application
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(urls.get(i), new HikariDataSource(config)));
+        }
+        log.info("Read replicas: {}", urls);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    // explicit credentials: opened on the chosen replica, or on the primary when the replica pool does not take them
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private Connection connect(ConnectionSource source) throws SQLException {
+        if (!ReplicaRouting.isPrimaryOnly()) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return source.open(replica.dataSource);
+                } catch (SQLFeatureNotSupportedException ex) {
+                    // Hikari pools only hand out connections with their own credentials, not a replica failure
+                    break;
+                } catch (SQLException ex) {
+                    replica.markDown(ex);
+                }
+            }
+        }
+        return source.open(primary);
+    }
+
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(null);
+                }
+            } catch (SQLException ex) {
+                replica.markDown(ex);
+            }
+        }
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final String url;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String url, HikariDataSource dataSource) {
+            this.url = url;
+            this.dataSource = dataSource;
+        }
+
+        private void markDown(SQLException cause) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Replica {} is down, reads fail over to the other replicas or the primary", url, cause);
+            }
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Replica {} is back", url);
+            }
+        }
+    }
+}
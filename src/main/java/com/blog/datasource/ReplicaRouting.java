@@ -0,0 +1,41 @@
+package com.blog.datasource;
+
+/**
+ * Per-thread override of the read routing: reads of the current request go to the primary
+ *
+ * Set by ReadYourWritesFilter for a client that wrote recently, so it reads its own
+ * writes even when the replicas lag behind.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isPrimaryOnly() {
+        return Boolean.TRUE.equals(PRIMARY_ONLY.get());
+    }
+
+    /**
+     * Route reads to the primary until the returned scope is closed
+     */
+    public static Scope primaryOnly() {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        return () -> {
+            if (previous != null) {
+                PRIMARY_ONLY.set(previous);
+            } else {
+                PRIMARY_ONLY.remove();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
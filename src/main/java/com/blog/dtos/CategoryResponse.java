@@ -1,5 +1,6 @@
 package com.blog.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,4 +13,12 @@ public class CategoryResponse {
     private Long id;
     private String name;
     private String description;
+
+    // only set by the categories endpoints, not when embedded in a post
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long postCount;
+
+    public CategoryResponse(Long id, String name, String description) {
+        this(id, name, description, null);
+    }
 }
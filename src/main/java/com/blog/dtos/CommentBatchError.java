@@ -0,0 +1,19 @@
+package com.blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Why one item of a comment batch was rejected
+ * index is the position of the item in the submitted list
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentBatchError {
+
+    private int index;
+    private Long postId;
+    private String message;
+}
@@ -0,0 +1,19 @@
+package com.blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentBatchResponse {
+
+    private int received;
+    private int created;
+    private int failed;
+
+    private List<CommentBatchError> errors;
+}
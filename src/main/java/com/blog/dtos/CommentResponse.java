@@ -16,6 +16,7 @@ public class CommentResponse {
     private String content;
     private String authorName;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 
     private Long postId;
 }
@@ -0,0 +1,24 @@
+package com.blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One window of a keyset (cursor) paginated listing
+ *
+ * Unlike Page, there is no total count: the client passes nextCursor
+ * back to get the following window, and stops when hasNext is false
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,33 @@
+package com.blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Progress of a bulk post import, also returned once it is finished
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgressResponse {
+
+    private String jobId;
+    private String status;
+
+    private long processed;
+    private long imported;
+    private long failed;
+
+    // imported posts per second since the start
+    private double throughput;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    // first rejected records, not all of them
+    private List<String> errors;
+}
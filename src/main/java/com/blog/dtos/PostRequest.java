@@ -1,7 +1,8 @@
 package com.blog.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -22,6 +23,15 @@ public class PostRequest {
     @Size(min = 10, message = "content must be at least 10 characters")
     private String content;
 
-    @NotEmpty(message = "at least one category is required")
     private Set<Long> categoryIds;
+
+    // categories can also be given by name, alone or together with ids
+    private Set<String> categoryNames;
+
+    @JsonIgnore
+    @AssertTrue(message = "at least one category is required")
+    public boolean isCategorySelected() {
+        return (categoryIds != null && !categoryIds.isEmpty())
+                || (categoryNames != null && !categoryNames.isEmpty());
+    }
 }
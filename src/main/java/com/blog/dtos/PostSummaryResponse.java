@@ -0,0 +1,28 @@
+package com.blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Light version of PostResponse for feed pages (view=summary)
+ * only an excerpt of the content and the number of comments instead of the comments
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSummaryResponse {
+
+    private Long id;
+    private String title;
+    private String excerpt;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    private Set<CategoryResponse> categories;
+
+    private Long commentCount;
+}
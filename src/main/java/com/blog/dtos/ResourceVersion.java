@@ -0,0 +1,22 @@
+package com.blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validators of a response for conditional GET
+ *
+ * etag is a weak entity tag (W/"..."), lastModified may be null when
+ * there is nothing to date the response with (e.g. an empty page)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceVersion {
+
+    private String etag;
+    private LocalDateTime lastModified;
+}
@@ -0,0 +1,19 @@
+package com.blog.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A post of the trending ranking
+ * score is the number of recent views, each view weighing less as it ages (blog.trending.half-life)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingPostResponse {
+
+    private int rank;
+    private double score;
+    private PostSummaryResponse post;
+}
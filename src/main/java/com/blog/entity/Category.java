@@ -4,14 +4,23 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "categories")
+// second-level cache: categories are read with almost every post and hardly ever change
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Category.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Category {
 
+    // cache regions, see ehcache.xml
+    public static final String CACHE_REGION = "category";
+    public static final String QUERY_CACHE_REGION = "category.queries";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -15,8 +15,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Comment {
 
+    // pooled sequence: ids are allocated 50 at a time without a round trip per row,
+    // which lets Hibernate batch the inserts (IDENTITY forces one insert per statement)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, columnDefinition = "TEXT")
@@ -28,6 +31,10 @@ public class Comment {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // null until the comment is edited
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", nullable = false)
     @JsonIgnore
@@ -37,4 +44,9 @@ public class Comment {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
 }
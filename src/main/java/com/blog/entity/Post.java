@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,13 +16,26 @@ import java.util.Set;
 
 @Entity
 @Table(name = "posts")
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Post.WITH_CATEGORIES, attributeNodes = @NamedAttributeNode("categories")),
+        @NamedEntityGraph(name = Post.WITH_COMMENTS, attributeNodes = @NamedAttributeNode("comments"))
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Post {
 
+    // fetch plans, see PostRepository
+    public static final String WITH_CATEGORIES = "Post.withCategories";
+    public static final String WITH_COMMENTS = "Post.withComments";
+
+    // second-level cache region of the categories collection, see ehcache.xml
+    public static final String CATEGORIES_CACHE_REGION = "post.categories";
+
+    // pooled sequence, like Comment, so bulk imports can batch their inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @SequenceGenerator(name = "post_seq", sequenceName = "posts_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -34,6 +50,12 @@ public class Post {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // denormalized number of comments, maintained by CommentCountBuffer with batched SQL increments
+    // never written by Hibernate after insert, so saving a post cannot overwrite a concurrent increment
+    @ColumnDefault("0")
+    @Column(name = "comment_count", nullable = false, updatable = false)
+    private long commentCount;
+
 
     // relationship 1: one to many | one post can have many comments
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -41,7 +63,9 @@ public class Post {
 
 
     // relationship 2: many to many | one post has many categories and vice versa
+    // the cached collection holds the category ids, the categories come from their own region
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Post.CATEGORIES_CACHE_REGION)
     @JoinTable(
             name = "post_categories",
             joinColumns = @JoinColumn(name = "post_id"),
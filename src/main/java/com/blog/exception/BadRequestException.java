@@ -0,0 +1,18 @@
+package com.blog.exception;
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public static BadRequestException forParameter(String parameterName, Object value) {
+        return new BadRequestException(
+                String.format("Invalid value for %s: %s", parameterName, value)
+        );
+    }
+}
@@ -0,0 +1,15 @@
+package com.blog.exception;
+
+/**
+ * Thrown when the server is saturated and the client should retry later
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
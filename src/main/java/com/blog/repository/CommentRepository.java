@@ -1,20 +1,29 @@
 package com.blog.repository;
 
 import com.blog.entity.Comment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findByPostIdOrderByCreatedAtAsc(Long postId);
 
+    // same order with a cap, for the deprecated unpaged listing
+    List<Comment> findByPostIdOrderByCreatedAtAscIdAsc(Long postId, Limit limit);
+
     Page<Comment> findByPostId(Long postId, Pageable pageable);
 
     List<Comment> findByAuthorNameIgnoreCase(String authorName);
@@ -26,4 +35,39 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("SELECT c FROM Comment c JOIN FETCH c.post WHERE c.post.id = :postId")
     List<Comment> findByPostIdWithPost(@Param("postId") Long postId);
 
+    /*
+     * Comment threads by keyset on (createdAt, id), oldest or newest first
+     * Rows are streamed (read as the response is written) and the seek predicate
+     * uses the (post_id, created_at, id) index in both directions, so any window
+     * of a huge thread costs the same as the first one.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    String THREAD_COLUMNS = "SELECT c.id AS id, c.content AS content, c.authorName AS authorName, " +
+            "c.createdAt AS createdAt, c.updatedAt AS updatedAt, c.post.id AS postId FROM Comment c ";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(THREAD_COLUMNS + "WHERE c.post.id = :postId ORDER BY c.createdAt ASC, c.id ASC")
+    Stream<CommentView> streamThreadOldestFirst(@Param("postId") Long postId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(THREAD_COLUMNS + "WHERE c.post.id = :postId AND " +
+            "(c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    Stream<CommentView> streamThreadOldestFirstAfter(@Param("postId") Long postId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(THREAD_COLUMNS + "WHERE c.post.id = :postId ORDER BY c.createdAt DESC, c.id DESC")
+    Stream<CommentView> streamThreadNewestFirst(@Param("postId") Long postId, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(THREAD_COLUMNS + "WHERE c.post.id = :postId AND " +
+            "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    Stream<CommentView> streamThreadNewestFirstAfter(@Param("postId") Long postId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Limit limit);
 }
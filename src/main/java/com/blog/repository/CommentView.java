@@ -0,0 +1,21 @@
+package com.blog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for streamed comment threads: plain rows, no Comment or Post entity
+ */
+public interface CommentView {
+
+    Long getId();
+
+    String getContent();
+
+    String getAuthorName();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getPostId();
+}
@@ -0,0 +1,15 @@
+package com.blog.repository;
+
+/**
+ * Projection of one (post, category) pair, used to attach categories to summaries
+ */
+public interface PostCategoryView {
+
+    Long getPostId();
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
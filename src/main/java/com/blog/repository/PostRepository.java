@@ -1,13 +1,22 @@
 package com.blog.repository;
 
 import com.blog.entity.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
@@ -18,11 +27,25 @@ public interface PostRepository extends JpaRepository<Post, Long> {
 
     Page<Post> findAll(Pageable pageable);
 
+    // full scan, kept for comparison only: searches are served by com.blog.search.SearchIndex
     @Query("SELECT p FROM Post p WHERE " +
             "LOWER(p.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.content) LIKE LOWER(CONCAT('%', :keyword, '%'))" )
     List<Post> searchPosts(@Param("keyword") String keyword);
 
+    // which of these posts exist, in one query
+    @Query("SELECT p.id FROM Post p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // stored comment count, see CommentCountBuffer for the pending part
+    @Query("SELECT p.commentCount FROM Post p WHERE p.id = :id")
+    Optional<Long> findCommentCountById(@Param("id") Long id);
+
+    // text of posts in id order, chunk by chunk, used to rebuild the search index
+    @Query("SELECT p.id AS id, p.title AS title, p.content AS content FROM Post p " +
+            "WHERE p.id > :afterId ORDER BY p.id")
+    List<PostSearchText> findSearchTextAfter(@Param("afterId") Long afterId, Pageable limit);
+
 
     // custom JPQL query with JOIN FETCH
     /**
@@ -47,4 +70,103 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     @Query("SELECT p FROM Post p JOIN p.categories c WHERE c.name = :categoryName")
     Page<Post> findByCategoryName(@Param("categoryName") String categoryName, Pageable pageable);
 
+
+    // two phase loading of paged reads
+    /**
+     * Paged reads first select only the ids of the page (plus the count query),
+     * then load those posts with one of the fetch plans below.
+     *
+     * Fetching a collection together with LIMIT would make Hibernate page in memory,
+     * and fetching both collections at once would multiply the rows, so each
+     * association is loaded by its own query into the same persistence context.
+     * A page then costs the same number of statements whatever its size.
+     */
+    @Query("SELECT p.id FROM Post p")
+    Page<Long> findPageIds(Pageable pageable);
+
+    @Query(value = "SELECT p.id FROM Post p JOIN p.categories c WHERE c.name = :categoryName",
+            countQuery = "SELECT COUNT(p) FROM Post p JOIN p.categories c WHERE c.name = :categoryName")
+    Page<Long> findPageIdsByCategoryName(@Param("categoryName") String categoryName, Pageable pageable);
+
+    @EntityGraph(Post.WITH_CATEGORIES)
+    List<Post> findWithCategoriesByIdIn(Collection<Long> ids);
+
+    @EntityGraph(Post.WITH_COMMENTS)
+    List<Post> findWithCommentsByIdIn(Collection<Long> ids);
+
+
+    // scrolling query for the full export
+    /**
+     * Rows are pulled from the cursor in batches of the fetch size as the stream
+     * is consumed, instead of materializing the whole table in a List.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Post p WHERE p.id > :sinceId ORDER BY p.id")
+    Stream<Post> streamAllAfter(@Param("sinceId") Long sinceId);
+
+
+    // summary read model for list pages
+    /**
+     * Selects only the columns a feed row shows, with the first 200 characters
+     * of the content as excerpt and the denormalized comment count.
+     * Returns projections, so neither Post nor Comment entities are loaded.
+     */
+    @Query(value = "SELECT p.id AS id, p.title AS title, SUBSTRING(p.content, 1, 200) AS excerpt, " +
+            "p.createdAt AS createdAt, p.updatedAt AS updatedAt, " +
+            "p.commentCount AS commentCount " +
+            "FROM Post p",
+            countQuery = "SELECT COUNT(p) FROM Post p")
+    Page<PostSummaryView> findSummaries(Pageable pageable);
+
+    @Query(value = "SELECT p.id AS id, p.title AS title, SUBSTRING(p.content, 1, 200) AS excerpt, " +
+            "p.createdAt AS createdAt, p.updatedAt AS updatedAt, " +
+            "p.commentCount AS commentCount " +
+            "FROM Post p JOIN p.categories c WHERE c.name = :categoryName",
+            countQuery = "SELECT COUNT(p) FROM Post p JOIN p.categories c WHERE c.name = :categoryName")
+    Page<PostSummaryView> findSummariesByCategoryName(@Param("categoryName") String categoryName, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.title AS title, SUBSTRING(p.content, 1, 200) AS excerpt, " +
+            "p.createdAt AS createdAt, p.updatedAt AS updatedAt, " +
+            "p.commentCount AS commentCount " +
+            "FROM Post p WHERE p.id IN :ids")
+    List<PostSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Version of several posts for conditional GET: one aggregate row per post,
+     * no entity is hydrated and no comment content is read
+     */
+    @Query("SELECT p.id AS id, p.updatedAt AS updatedAt, " +
+            "MAX(COALESCE(c.updatedAt, c.createdAt)) AS lastCommentAt, COUNT(c) AS commentCount " +
+            "FROM Post p LEFT JOIN p.comments c WHERE p.id IN :ids GROUP BY p.id, p.updatedAt")
+    List<PostVersionView> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // categories of several posts in one query
+    @Query("SELECT p.id AS postId, c.id AS id, c.name AS name, c.description AS description " +
+            "FROM Post p JOIN p.categories c WHERE p.id IN :postIds")
+    List<PostCategoryView> findCategoriesByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+
+    // keyset pagination for the feed
+    /**
+     * Newest first, ordered by (createdAt, id) so the order is total.
+     * Only the limit of the pageable is used; there is no OFFSET and no count query.
+     */
+    @Query("SELECT p.id FROM Post p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Long> findFeedFirst(Pageable limit);
+
+    /**
+     * Seeks past the cursor row instead of skipping rows,
+     * so the cost does not grow with how deep the client has scrolled
+     */
+    @Query("SELECT p.id FROM Post p WHERE " +
+            "p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Long> findFeedAfter(@Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") Long id,
+                             Pageable limit);
+
 }
@@ -0,0 +1,13 @@
+package com.blog.repository;
+
+/**
+ * Projection with only the post fields the search index needs
+ */
+public interface PostSearchText {
+
+    Long getId();
+
+    String getTitle();
+
+    String getContent();
+}
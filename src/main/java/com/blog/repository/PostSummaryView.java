@@ -0,0 +1,23 @@
+package com.blog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for list pages: a post without its content and comments
+ *
+ * Selected column by column, so no Post or Comment entity is ever hydrated.
+ */
+public interface PostSummaryView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getExcerpt();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getCommentCount();
+}
@@ -0,0 +1,20 @@
+package com.blog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for conditional GET: what a post response depends on, without the response
+ *
+ * The newest comment timestamp is the latest of createdAt and updatedAt over its comments,
+ * the comment count catches deletions, which leave no timestamp behind.
+ */
+public interface PostVersionView {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getLastCommentAt();
+
+    Long getCommentCount();
+}
@@ -0,0 +1,12 @@
+package com.blog.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SearchHit {
+
+    private Long postId;
+    private double score;
+}
@@ -0,0 +1,251 @@
+package com.blog.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over post title and content
+ *
+ * Each term maps to the posts containing it and how often (the postings list).
+ * Queries only touch the postings of their own terms, instead of scanning
+ * every post like LIKE '%kw%' does, and hits are ranked with BM25.
+ *
+ * The index is kept up to date by PostService after each committed write
+ * and rebuilt from the database at startup by SearchIndexInitializer.
+ */
+@Component
+public class SearchIndex {
+
+    // BM25 tuning: K1 controls how fast repeated terms stop adding score, B how much long posts are penalised
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // one occurrence in the title counts as much as this many in the content
+    private static final int TITLE_WEIGHT = 3;
+
+    // ranking order of hits, worst first: lower score, then older post
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::getScore)
+            .thenComparing(SearchHit::getPostId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (post id -> weighted term frequency)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+
+    // post id -> weighted length and distinct terms, needed for scoring and for removal
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+
+    private long totalLength;
+
+    /**
+     * Add a post to the index, replacing any previous version of it
+     */
+    public void index(Long postId, String title, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : Tokenizer.tokenize(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : Tokenizer.tokenize(content)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        int length = 0;
+        for (int frequency : frequencies.values()) {
+            length += frequency;
+        }
+        IndexedDocument document = new IndexedDocument(length, frequencies.keySet().toArray(new String[0]));
+
+        lock.writeLock().lock();
+        try {
+            unindex(postId);
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(postId, frequency));
+            documents.put(postId, document);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a post from the index
+     */
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            unindex(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank the posts matching the query and return one page of hits
+     *
+     * @param operator AND keeps posts containing every term, OR posts containing any term
+     * @param offset   number of best hits to skip
+     * @param limit    maximum number of hits to return
+     */
+    public SearchResult search(String query, SearchOperator operator, long offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new SearchResult(List.of(), 0);
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            double[] idf = new double[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                Map<Long, Integer> list = postings.getOrDefault(terms.get(i), Map.of());
+                termPostings.add(list);
+                idf[i] = inverseDocumentFrequency(list.size(), documentCount);
+            }
+
+            Map<Long, Double> scores = operator == SearchOperator.AND
+                    ? scoreAll(termPostings, idf, averageLength)
+                    : scoreAny(termPostings, idf, averageLength);
+
+            return new SearchResult(topHits(scores, offset, limit), scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // AND: walk the shortest postings list and keep posts found in every other list
+    private Map<Long, Double> scoreAll(List<Map<Long, Integer>> termPostings, double[] idf, double averageLength) {
+        int shortest = 0;
+        for (int i = 1; i < termPostings.size(); i++) {
+            if (termPostings.get(i).size() < termPostings.get(shortest).size()) {
+                shortest = i;
+            }
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        candidates:
+        for (Long postId : termPostings.get(shortest).keySet()) {
+            int length = documents.get(postId).length;
+            double score = 0;
+            for (int i = 0; i < termPostings.size(); i++) {
+                Integer frequency = termPostings.get(i).get(postId);
+                if (frequency == null) {
+                    continue candidates;
+                }
+                score += termScore(frequency, length, idf[i], averageLength);
+            }
+            scores.put(postId, score);
+        }
+        return scores;
+    }
+
+    // OR: accumulate the score of every post found in any list
+    private Map<Long, Double> scoreAny(List<Map<Long, Integer>> termPostings, double[] idf, double averageLength) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (int i = 0; i < termPostings.size(); i++) {
+            double termIdf = idf[i];
+            termPostings.get(i).forEach((postId, frequency) -> {
+                double score = termScore(frequency, documents.get(postId).length, termIdf, averageLength);
+                scores.merge(postId, score, Double::sum);
+            });
+        }
+        return scores;
+    }
+
+    // bounded min-heap: only offset + limit hits are ever kept, not every match
+    // sized by the matches, never by the request: at most scores.size() hits
+    private List<SearchHit> topHits(Map<Long, Double> scores, long offset, int limit) {
+        if (limit <= 0 || offset < 0 || offset >= scores.size()) {
+            return List.of();
+        }
+        int wanted = (int) Math.min(offset + limit, scores.size());
+
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(wanted, RANKING);
+        scores.forEach((postId, score) -> {
+            SearchHit hit = new SearchHit(postId, score);
+            if (best.size() < wanted) {
+                best.add(hit);
+            } else if (RANKING.compare(hit, best.peek()) > 0) {
+                best.poll();
+                best.add(hit);
+            }
+        });
+
+        List<SearchHit> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING.reversed());
+        return ranked.subList((int) offset, ranked.size());
+    }
+
+    private void unindex(Long postId) {
+        IndexedDocument document = documents.remove(postId);
+        if (document == null) {
+            return;
+        }
+
+        for (String term : document.terms) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(postId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    private static double inverseDocumentFrequency(int documentFrequency, int documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double termScore(int frequency, int length, double idf, double averageLength) {
+        double normalisation = K1 * (1 - B + B * length / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + normalisation);
+    }
+
+    private static final class IndexedDocument {
+
+        private final int length;
+        private final String[] terms;
+
+        private IndexedDocument(int length, String[] terms) {
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.blog.search;
+
+import com.blog.repository.PostRepository;
+import com.blog.repository.PostSearchText;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds the search index from the database when the application starts
+ *
+ * Posts are read in id order, one chunk at a time, and only their
+ * id, title and content are selected, so the whole table never sits in memory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexInitializer {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final PostRepository postRepository;
+    private final SearchIndex searchIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        searchIndex.clear();
+
+        Pageable chunk = PageRequest.of(0, CHUNK_SIZE);
+        Long lastId = 0L;
+        List<PostSearchText> posts;
+        do {
+            posts = postRepository.findSearchTextAfter(lastId, chunk);
+            for (PostSearchText post : posts) {
+                searchIndex.index(post.getId(), post.getTitle(), post.getContent());
+                lastId = post.getId();
+            }
+        } while (posts.size() == CHUNK_SIZE);
+
+        log.info("Search index rebuilt with {} posts in {} ms",
+                searchIndex.size(), System.currentTimeMillis() - start);
+    }
+}
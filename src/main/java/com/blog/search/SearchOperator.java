@@ -0,0 +1,25 @@
+package com.blog.search;
+
+import com.blog.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * How the terms of a multi-term query are combined
+ */
+public enum SearchOperator {
+
+    /** every term must appear in the post */
+    AND,
+
+    /** at least one term must appear in the post */
+    OR;
+
+    public static SearchOperator from(String value) {
+        try {
+            return SearchOperator.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw BadRequestException.forParameter("operator", value);
+        }
+    }
+}
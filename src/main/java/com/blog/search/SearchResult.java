@@ -0,0 +1,17 @@
+package com.blog.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of ranked hits plus the total number of matching posts
+ */
+@Data
+@AllArgsConstructor
+public class SearchResult {
+
+    private List<SearchHit> hits;
+    private int totalHits;
+}
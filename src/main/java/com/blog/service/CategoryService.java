@@ -1,25 +1,36 @@
 package com.blog.service;
 
+import com.blog.cache.HomepageFeedCache;
+import com.blog.cache.PostDetailCache;
+import com.blog.counter.CategoryPostCounts;
 import com.blog.dtos.CategoryRequest;
 import com.blog.dtos.CategoryResponse;
 import com.blog.entity.Category;
 import com.blog.exception.DuplicateResourceException;
 import com.blog.exception.ResourceNotFoundException;
 import com.blog.repository.CategoryRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "blog.service", description = "Service method calls, by route")
 @RequiredArgsConstructor
 @Slf4j
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryPostCounts categoryPostCounts;
+    private final PostDetailCache postDetailCache;
+    private final HomepageFeedCache homepageFeedCache;
 
     /** to create a new category
      *
@@ -46,6 +57,7 @@ public class CategoryService {
 
     /**
      * to get all category
+     * with their post counts, served from memory (see CategoryPostCounts)
      */
     @Transactional(readOnly = true)
     public List<CategoryResponse> getAllCategories() {
@@ -74,8 +86,32 @@ public class CategoryService {
         return convertToResponse(category);
     }
 
+    /**
+     * Resolve several categories by name in one query
+     * fails with every missing name if any of them doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryResponse> resolveByNames(Collection<String> names) {
+        log.debug("Resolving categories by names: {}", names);
+
+        List<Category> categories = categoryRepository.findByNameIn(names);
+
+        Set<String> missing = new TreeSet<>(names);
+        categories.forEach(category -> missing.remove(category.getName()));
+        if (!missing.isEmpty()) {
+            log.error("Categories not found with names: {}", missing);
+            throw ResourceNotFoundException.forField("Category", "names", missing);
+        }
+
+        return categories.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
     /**
      * update category
+     * the Category region and the cached category queries are updated by Hibernate,
+     * cached post details and listing pages embed the category and are dropped once the rename is committed
      */
     @Transactional
     public CategoryResponse updateCategory(Long id, CategoryRequest request) {
@@ -99,12 +135,19 @@ public class CategoryService {
         Category updatedCategory = categoryRepository.save(category);
         log.info("Category updated successfully with id: {}", id);
 
+        TransactionCallbacks.afterCommit(() -> {
+            postDetailCache.invalidateAll();
+            homepageFeedCache.invalidateAll();
+        });
+
         return convertToResponse(updatedCategory);
 
     }
 
     /**
      * Delete category
+     * only a category without posts can be deleted (post_categories foreign key),
+     * so no cached Post.categories collection or post detail refers to it
      */
     @Transactional
     public void deleteCategory(Long id) {
@@ -117,6 +160,8 @@ public class CategoryService {
 
         categoryRepository.deleteById(id);
         log.info("Category deleted successfully with id: {}", id);
+
+        TransactionCallbacks.afterCommit(() -> categoryPostCounts.forget(id));
     }
 
 
@@ -125,7 +170,8 @@ public class CategoryService {
         return new CategoryResponse(
                 category.getId(),
                 category.getName(),
-                category.getDescription()
+                category.getDescription(),
+                categoryPostCounts.get(category.getId())
         );
     }
 
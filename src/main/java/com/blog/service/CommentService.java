@@ -1,30 +1,72 @@
 package com.blog.service;
 
+import com.blog.cache.HomepageFeedCache;
+import com.blog.cache.PostDetailCache;
+import com.blog.counter.CommentCountBuffer;
+import com.blog.dtos.CommentBatchError;
+import com.blog.dtos.CommentBatchResponse;
 import com.blog.dtos.CommentRequest;
 import com.blog.dtos.CommentResponse;
 import com.blog.dtos.PostResponse;
 import com.blog.entity.Comment;
 import com.blog.entity.Post;
+import com.blog.exception.BadRequestException;
 import com.blog.exception.ResourceNotFoundException;
 import com.blog.repository.CommentRepository;
+import com.blog.repository.CommentView;
 import com.blog.repository.PostRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "blog.service", description = "Service method calls, by route")
 @RequiredArgsConstructor
 @Slf4j
 public class CommentService {
 
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    // cap of the deprecated unpaged listing, use the thread endpoint for more
+    public static final int MAX_UNPAGED_COMMENTS = 1_000;
+    public static final int MAX_THREAD_WINDOW = 1_000;
+
+    // streamed rows written between two flushes of the response
+    private static final int THREAD_FLUSH_ROWS = 100;
+
+    // comments persisted between two flush/clear of the persistence context during a batch
+    private static final int BATCH_FLUSH_SIZE = 500;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
+    private final PostDetailCache postDetailCache;
+    private final HomepageFeedCache homepageFeedCache;
+    private final CommentCountBuffer commentCountBuffer;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
 
     /**
      * Create a comment on a post
@@ -45,13 +87,109 @@ public class CommentService {
 
         Comment savedComment = commentRepository.save(comment);
 
+        // the cached post embeds its comments
+        Long postId = post.getId();
+        TransactionCallbacks.afterCommit(() -> {
+            postDetailCache.invalidate(postId);
+            homepageFeedCache.postChanged(postId);
+            commentCountBuffer.increment(postId);
+        });
+
         return convertToResponse(savedComment);
     }
 
 
+    /**
+     * Create many comments in one transaction (bulk import)
+     *
+     * - every item is validated on its own, invalid items are reported and skipped
+     * - the post ids of the whole batch are checked with one query
+     * - comments reference their post by proxy (no SELECT per post) and are
+     *   inserted with JDBC batching, the persistence context is flushed and
+     *   cleared every BATCH_FLUSH_SIZE comments to keep memory flat
+     */
+    @Transactional
+    public CommentBatchResponse createComments(List<CommentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("comment batch is empty");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("comment batch cannot exceed " + MAX_BATCH_SIZE + " items");
+        }
+
+        Set<Long> postIds = requests.stream()
+                .filter(Objects::nonNull)
+                .map(CommentRequest::getPostId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingPostIds = postIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(postRepository.findExistingIds(postIds));
+
+        List<CommentBatchError> errors = new ArrayList<>();
+        Map<Long, Long> createdPerPost = new HashMap<>();
+        int created = 0;
+
+        for (int index = 0; index < requests.size(); index++) {
+            CommentRequest request = requests.get(index);
+            String error = validateBatchItem(request, existingPostIds);
+            if (error != null) {
+                errors.add(new CommentBatchError(index, request != null ? request.getPostId() : null, error));
+                continue;
+            }
+
+            Comment comment = new Comment();
+            comment.setContent(request.getContent());
+            comment.setAuthorName(request.getAuthorName());
+            comment.setPost(postRepository.getReferenceById(request.getPostId()));
+            entityManager.persist(comment);
+
+            createdPerPost.merge(request.getPostId(), 1L, Long::sum);
+            if (++created % BATCH_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        log.info("Comment batch: {} received, {} created, {} rejected",
+                requests.size(), created, errors.size());
+
+        TransactionCallbacks.afterCommit(() -> createdPerPost.forEach((postId, count) -> {
+            postDetailCache.invalidate(postId);
+            homepageFeedCache.postChanged(postId);
+            commentCountBuffer.add(postId, count);
+        }));
+
+        return new CommentBatchResponse(requests.size(), created, errors.size(), errors);
+    }
+
+    private String validateBatchItem(CommentRequest request, Set<Long> existingPostIds) {
+        if (request == null) {
+            return "comment is required";
+        }
+
+        Set<ConstraintViolation<CommentRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (!existingPostIds.contains(request.getPostId())) {
+            return String.format("Post not found with id: %d", request.getPostId());
+        }
+        return null;
+    }
+
+
     /**
      *  get all the comments for a specific post
+     *
+     *  Deprecated: capped at MAX_UNPAGED_COMMENTS, the oldest ones.
+     *  Use streamThread to read a thread of any size.
      */
+    @Deprecated
     @Transactional(readOnly = true)
     public List<CommentResponse> getCommentsByPostId(Long postId) {
 
@@ -60,7 +198,8 @@ public class CommentService {
             throw ResourceNotFoundException.forId("Post", postId);
         }
 
-        List<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtAsc(postId);
+        List<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtAscIdAsc(
+                postId, Limit.of(MAX_UNPAGED_COMMENTS));
 
         return comments.stream()
                 .map(this::convertToResponse)
@@ -83,6 +222,73 @@ public class CommentService {
     }
 
 
+    /**
+     * fail with 404 before a response is streamed for a post that doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public void requirePost(Long postId) {
+        if (!postRepository.existsById(postId)) {
+            throw ResourceNotFoundException.forId("Post", postId);
+        }
+    }
+
+    /**
+     * Write one window of a comment thread as JSON, with the shape of CursorPageResponse
+     *
+     * Keyset pagination on (createdAt, id), oldest or newest first. The rows are
+     * streamed from the database straight into the JSON generator, no List is built;
+     * one extra row is read to know whether another window exists. nextCursor and
+     * hasNext come after the content, once the window has been read.
+     */
+    @Transactional(readOnly = true)
+    public void streamThread(Long postId, KeysetCursor after, int size, boolean newestFirst, OutputStream out) {
+        int windowSize = Math.max(1, Math.min(size, MAX_THREAD_WINDOW));
+        Limit limit = Limit.of(windowSize + 1);
+
+        try (Stream<CommentView> rows = openThread(postId, after, newestFirst, limit);
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeName("content");
+            generator.writeStartArray();
+
+            int written = 0;
+            CommentView last = null;
+            boolean hasNext = false;
+            Iterator<CommentView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                CommentView row = iterator.next();
+                if (written == windowSize) {
+                    hasNext = true;
+                    break;
+                }
+                generator.writePOJO(convertToResponse(row));
+                last = row;
+                if (++written % THREAD_FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+
+            generator.writeEndArray();
+            generator.writeNumberProperty("size", written);
+            generator.writeStringProperty("nextCursor",
+                    hasNext ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null);
+            generator.writeBooleanProperty("hasNext", hasNext);
+            generator.writeEndObject();
+        }
+    }
+
+    private Stream<CommentView> openThread(Long postId, KeysetCursor after, boolean newestFirst, Limit limit) {
+        if (after == null) {
+            return newestFirst
+                    ? commentRepository.streamThreadNewestFirst(postId, limit)
+                    : commentRepository.streamThreadOldestFirst(postId, limit);
+        }
+        return newestFirst
+                ? commentRepository.streamThreadNewestFirstAfter(postId, after.getCreatedAt(), after.getId(), limit)
+                : commentRepository.streamThreadOldestFirstAfter(postId, after.getCreatedAt(), after.getId(), limit);
+    }
+
+
     /**
      * get comment by ID
      */
@@ -115,6 +321,12 @@ public class CommentService {
 
         Comment savedComment = commentRepository.save(comment);
 
+        Long postId = request.getPostId();
+        TransactionCallbacks.afterCommit(() -> {
+            postDetailCache.invalidate(postId);
+            homepageFeedCache.postChanged(postId);
+        });
+
         return convertToResponse(savedComment);
     }
 
@@ -124,28 +336,47 @@ public class CommentService {
      */
     @Transactional
     public void deleteComment(Long id) {
-        if (!commentRepository.existsById(id)) {
-            throw ResourceNotFoundException.forId("comment", id);
-        }
+        Comment comment = commentRepository.findById(id)
+                .orElseThrow(() -> ResourceNotFoundException.forId("comment", id));
+        Long postId = comment.getPost().getId();
 
-        commentRepository.deleteById(id);
+        commentRepository.delete(comment);
         log.info("Comment deleted successfully with id: {}", id);
+
+        TransactionCallbacks.afterCommit(() -> {
+            postDetailCache.invalidate(postId);
+            homepageFeedCache.postChanged(postId);
+            commentCountBuffer.decrement(postId);
+        });
     }
 
 
     /**
      * get comment count for a post
+     *
+     * O(1): the denormalized posts.comment_count (one primary key lookup)
+     * plus the increments not flushed yet by CommentCountBuffer
      */
     @Transactional(readOnly = true)
     public Long getCommentCountByPostId(Long postId) {
-        if(!postRepository.existsById(postId)) {
-            throw ResourceNotFoundException.forId("comment", postId);
-        }
+        Long storedCount = postRepository.findCommentCountById(postId)
+                .orElseThrow(() -> ResourceNotFoundException.forId("Post", postId));
 
-        return commentRepository.countByPostId(postId);
+        return storedCount + commentCountBuffer.pending(postId);
     }
 
 
+    private CommentResponse convertToResponse(CommentView row) {
+        return new CommentResponse(
+                row.getId(),
+                row.getContent(),
+                row.getAuthorName(),
+                row.getCreatedAt(),
+                row.getUpdatedAt(),
+                row.getPostId()
+        );
+    }
+
     private CommentResponse convertToResponse(Comment savedComment) {
 
         CommentResponse response = new CommentResponse();
@@ -153,6 +384,7 @@ public class CommentService {
         response.setContent(savedComment.getContent());
         response.setAuthorName(savedComment.getAuthorName());
         response.setCreatedAt(savedComment.getCreatedAt());
+        response.setUpdatedAt(savedComment.getUpdatedAt());
         response.setPostId(savedComment.getPost().getId());
 
         return response;
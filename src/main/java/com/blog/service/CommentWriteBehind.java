@@ -0,0 +1,389 @@
+package com.blog.service;
+
+import com.blog.cache.HomepageFeedCache;
+import com.blog.cache.PostDetailCache;
+import com.blog.counter.CommentCountBuffer;
+import com.blog.dtos.CommentRequest;
+import com.blog.dtos.CommentResponse;
+import com.blog.entity.Comment;
+import com.blog.exception.ResourceNotFoundException;
+import com.blog.exception.ServiceUnavailableException;
+import com.blog.repository.PostRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind mode for comment creation (blog.comments.write-behind.enabled)
+ *
+ * Requests only append to a bounded lock-free queue. One writer thread drains it
+ * in group commits: up to batch-size comments per transaction, one query to check
+ * the post ids of the whole group, inserts sent as JDBC batches. A group is written
+ * once batch-size comments are waiting or the oldest has waited max-latency.
+ * When the queue is full, new comments are refused with 503 (backpressure).
+ * A group whose transaction fails is written again one comment per transaction, so
+ * one bad comment does not fail the others; the failed transaction wrote nothing,
+ * so no comment is written twice.
+ *
+ * Acknowledgement (blog.comments.write-behind.ack):
+ * - COMMITTED: the request waits for the commit of its group and gets the created
+ *   comment (201), 404 if the post does not exist, or 503 if it could not be written
+ *   even alone. Nothing acknowledged is lost.
+ * - ACCEPTED: the request returns as soon as the comment is queued (202, no id yet).
+ *   Comments still queued are lost if the process dies, comments on unknown posts
+ *   are dropped by the writer (and logged), and so are comments that could not be written.
+ */
+@Service
+@Slf4j
+public class CommentWriteBehind implements MeterBinder {
+
+    public enum Ack {
+        ACCEPTED,
+        COMMITTED
+    }
+
+    // how long the writer sleeps when there is nothing queued (it is woken up on the first submit)
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final PostRepository postRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PostDetailCache postDetailCache;
+    private final HomepageFeedCache homepageFeedCache;
+    private final CommentCountBuffer commentCountBuffer;
+
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private final Ack ack;
+    private final Duration ackTimeout;
+
+    // ConcurrentLinkedQueue has no capacity, the bound is kept by the counter
+    private final Queue<PendingComment> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public CommentWriteBehind(PostRepository postRepository,
+                              EntityManager entityManager,
+                              TransactionTemplate transactionTemplate,
+                              PostDetailCache postDetailCache,
+                              HomepageFeedCache homepageFeedCache,
+                              CommentCountBuffer commentCountBuffer,
+                              @Value("${blog.comments.write-behind.enabled:false}") boolean enabled,
+                              @Value("${blog.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${blog.comments.write-behind.batch-size:500}") int batchSize,
+                              @Value("${blog.comments.write-behind.max-latency:50ms}") Duration maxLatency,
+                              @Value("${blog.comments.write-behind.ack:COMMITTED}") Ack ack,
+                              @Value("${blog.comments.write-behind.ack-timeout:10s}") Duration ackTimeout) {
+        this.postRepository = postRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.postDetailCache = postDetailCache;
+        this.homepageFeedCache = homepageFeedCache;
+        this.commentCountBuffer = commentCountBuffer;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.ack = ack;
+        this.ackTimeout = ackTimeout;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "comment-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Comment write-behind enabled: capacity {}, batch size {}, max latency {} ms, ack {}",
+                queueCapacity, batchSize, TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos), ack);
+    }
+
+    /**
+     * Stop accepting comments and write what is still queued before the datasource closes
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT.toMillis());
+        if (!queue.isEmpty()) {
+            log.warn("Comment write-behind stopped with {} comments not written", queued.get());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Ack getAck() {
+        return ack;
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * Queue a comment, then return at once (ACCEPTED) or once its group is committed (COMMITTED)
+     *
+     * @throws ServiceUnavailableException when the queue is full or the writer is stopped
+     */
+    public CommentResponse submit(CommentRequest request) {
+        if (!running) {
+            throw new ServiceUnavailableException("Comment writer is not running");
+        }
+
+        int depth = queued.incrementAndGet();
+        if (depth > queueCapacity) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new ServiceUnavailableException("Too many comments waiting to be written, retry later");
+        }
+
+        PendingComment pending = new PendingComment(request, System.nanoTime(),
+                ack == Ack.COMMITTED ? new CompletableFuture<>() : null);
+        queue.offer(pending);
+
+        // wake the writer when it may be idle, or when a full group is ready
+        if (depth == 1 || depth == batchSize) {
+            LockSupport.unpark(writer);
+        }
+
+        if (ack == Ack.ACCEPTED) {
+            CommentResponse response = new CommentResponse();
+            response.setContent(request.getContent());
+            response.setAuthorName(request.getAuthorName());
+            response.setPostId(request.getPostId());
+            return response;
+        }
+        return awaitCommit(pending);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("blog.comments.write-behind.queue", queued, AtomicInteger::get)
+                .description("Comments waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("blog.comments.write-behind.written", written, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("blog.comments.write-behind.dropped", dropped, AtomicLong::get)
+                .description("Comments on unknown posts")
+                .register(registry);
+        FunctionCounter.builder("blog.comments.write-behind.rejected", rejected, AtomicLong::get)
+                .description("Comments refused because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("blog.comments.write-behind.failed", failed, AtomicLong::get)
+                .description("Comments that could not be written, even in a transaction of their own")
+                .register(registry);
+    }
+
+    private CommentResponse awaitCommit(PendingComment pending) {
+        try {
+            return pending.result.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            // the comment stays queued and may still be written
+            throw new ServiceUnavailableException("Comment not committed within " + ackTimeout.toMillis() + " ms", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the comment to be committed", ex);
+        }
+    }
+
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            PendingComment oldest = queue.peek();
+            if (oldest == null) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            long waited = System.nanoTime() - oldest.acceptedAt;
+            if (running && queued.get() < batchSize && waited < maxLatencyNanos) {
+                LockSupport.parkNanos(this, maxLatencyNanos - waited);
+                continue;
+            }
+
+            List<PendingComment> group = new ArrayList<>(batchSize);
+            PendingComment next;
+            while (group.size() < batchSize && (next = queue.poll()) != null) {
+                group.add(next);
+            }
+            queued.addAndGet(-group.size());
+
+            // only the transaction is retried: once it is committed, the comments are written
+            Map<PendingComment, Comment> persisted;
+            try {
+                persisted = persist(group);
+            } catch (RuntimeException ex) {
+                if (group.size() == 1) {
+                    fail(group.get(0), ex);
+                } else {
+                    log.warn("Comment write-behind group of {} failed, writing its comments one by one", group.size(), ex);
+                    writeOneByOne(group);
+                }
+                continue;
+            }
+            complete(group, persisted);
+        }
+        log.info("Comment write-behind stopped: {} written, {} dropped, {} rejected, {} failed",
+                written.get(), dropped.get(), rejected.get(), failed.get());
+    }
+
+    // the group transaction was rolled back: none of its comments is written yet
+    private void writeOneByOne(List<PendingComment> group) {
+        for (PendingComment pending : group) {
+            List<PendingComment> single = List.of(pending);
+            Map<PendingComment, Comment> persisted;
+            try {
+                persisted = persist(single);
+            } catch (RuntimeException ex) {
+                fail(pending, ex);
+                continue;
+            }
+            complete(single, persisted);
+        }
+    }
+
+    private void fail(PendingComment pending, RuntimeException ex) {
+        failed.incrementAndGet();
+        log.error("Comment write-behind could not write a comment on post {}", pending.request.getPostId(), ex);
+        pending.fail(new ServiceUnavailableException("Comment could not be written, retry later", ex));
+    }
+
+    /**
+     * Group commit: one transaction, one query for the post ids, batched inserts
+     * nothing is persisted if it throws
+     */
+    private Map<PendingComment, Comment> persist(List<PendingComment> group) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> postIds = group.stream()
+                    .map(pending -> pending.request.getPostId())
+                    .collect(Collectors.toSet());
+            Set<Long> existingPostIds = new HashSet<>(postRepository.findExistingIds(postIds));
+
+            Map<PendingComment, Comment> comments = new HashMap<>();
+            for (PendingComment pending : group) {
+                if (!existingPostIds.contains(pending.request.getPostId())) {
+                    continue;
+                }
+                Comment comment = new Comment();
+                comment.setContent(pending.request.getContent());
+                comment.setAuthorName(pending.request.getAuthorName());
+                comment.setPost(postRepository.getReferenceById(pending.request.getPostId()));
+                entityManager.persist(comment);
+                comments.put(pending, comment);
+            }
+            return comments;
+        });
+    }
+
+    // after the commit only: complete the futures and update counts and caches
+    private void complete(List<PendingComment> group, Map<PendingComment, Comment> persisted) {
+        Map<Long, Long> createdPerPost = new HashMap<>();
+        for (PendingComment pending : group) {
+            Long postId = pending.request.getPostId();
+            Comment comment = persisted.get(pending);
+            if (comment == null) {
+                dropped.incrementAndGet();
+                log.warn("Comment write-behind dropped a comment on unknown post {}", postId);
+                pending.fail(ResourceNotFoundException.forId("Post", postId));
+                continue;
+            }
+
+            createdPerPost.merge(postId, 1L, Long::sum);
+            pending.complete(toResponse(comment, postId));
+        }
+        createdPerPost.forEach((postId, count) -> {
+            postDetailCache.invalidate(postId);
+            homepageFeedCache.postChanged(postId);
+            commentCountBuffer.add(postId, count);
+        });
+        written.addAndGet(persisted.size());
+    }
+
+    private static CommentResponse toResponse(Comment comment, Long postId) {
+        CommentResponse response = new CommentResponse();
+        response.setId(comment.getId());
+        response.setContent(comment.getContent());
+        response.setAuthorName(comment.getAuthorName());
+        response.setCreatedAt(comment.getCreatedAt());
+        response.setPostId(postId);
+        return response;
+    }
+
+    // identity equality on purpose: two equal requests are two comments
+    private static final class PendingComment {
+
+        private final CommentRequest request;
+        private final long acceptedAt;
+        private final CompletableFuture<CommentResponse> result;
+
+        private PendingComment(CommentRequest request, long acceptedAt, CompletableFuture<CommentResponse> result) {
+            this.request = request;
+            this.acceptedAt = acceptedAt;
+            this.result = result;
+        }
+
+        private void complete(CommentResponse response) {
+            if (result != null) {
+                result.complete(response);
+            }
+        }
+
+        private void fail(RuntimeException ex) {
+            if (result != null) {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.blog.service;
+
+import com.blog.cache.HomepageFeedCache;
+import com.blog.counter.CategoryPostCounts;
+import com.blog.dtos.ImportProgressResponse;
+import com.blog.dtos.PostRequest;
+import com.blog.entity.Category;
+import com.blog.entity.Post;
+import com.blog.exception.ResourceNotFoundException;
+import com.blog.repository.CategoryRepository;
+import com.blog.search.SearchIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.TokenStreamLocation;
+import tools.jackson.core.exc.StreamReadException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of posts from a large JSON array or NDJSON stream
+ *
+ * Each record has the shape of a PostRequest. The input is read with Jackson's
+ * streaming parser one record at a time and written in chunks of CHUNK_SIZE:
+ * - one transaction per chunk, posts and post_categories rows go out in JDBC batches
+ *   (posts use a pooled sequence, see Post)
+ * - category names and ids are resolved against the categories loaded once per chunk,
+ *   never with a query per record
+ * - the persistence context is cleared after each chunk
+ * so the heap used does not depend on the size of the file.
+ *
+ * Progress of running and recent imports can be polled while an import runs.
+ */
+@Service
+@Timed(value = "blog.service", description = "Service method calls, by route")
+@RequiredArgsConstructor
+@Slf4j
+public class PostImportService {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    // stopped by malformed input, the records before it are imported
+    public static final String FAILED = "FAILED";
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_KEPT_JOBS = 20;
+
+    private final ObjectMapper objectMapper;
+    private final CategoryRepository categoryRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final SearchIndex searchIndex;
+    private final CategoryPostCounts categoryPostCounts;
+    private final HomepageFeedCache homepageFeedCache;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Import every record of the stream, returns the final report
+     */
+    public ImportProgressResponse importPosts(InputStream input) {
+        ImportJob job = startJob();
+        log.info("Post import {} started", job.id);
+
+        // one record at a time: the tokens after a record are the next records, not trailing garbage
+        ObjectReader recordReader = objectMapper.readerFor(PostRequest.class)
+                .without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+        List<PostRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            // a JSON array of records, or NDJSON: a sequence of root level records
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+
+            while (token == JsonToken.START_OBJECT) {
+                chunk.add(recordReader.readValue(parser));
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, job);
+                }
+                token = parser.nextToken();
+            }
+            // anything but a record is only allowed as the end of the input, it is not the end of the import
+            if (array) {
+                if (token != JsonToken.END_ARRAY) {
+                    throw new StreamReadException(parser, "expected a record or the end of the array, found " + token);
+                }
+                token = parser.nextToken();
+            }
+            if (token != null) {
+                throw new StreamReadException(parser, "expected " + (array ? "the end of input" : "a record")
+                        + ", found " + token);
+            }
+            importChunk(chunk, job);
+            job.finish(COMPLETED);
+        } catch (JacksonException ex) {
+            log.error("Post import {} stopped on malformed input after {} records", job.id, job.processed.get(), ex);
+            job.error("malformed input after record " + job.processed.get() + position(ex.getLocation())
+                    + ": " + ex.getOriginalMessage());
+            job.finish(FAILED);
+        } catch (RuntimeException ex) {
+            log.error("Post import {} failed after {} records", job.id, job.processed.get(), ex);
+            job.error(ex.getMessage());
+            job.finish(FAILED);
+            throw ex;
+        }
+
+        log.info("Post import {} {}: {} imported, {} rejected, {} posts/s",
+                job.id, job.status, job.imported.get(), job.failed.get(), Math.round(job.throughput()));
+        return job.toResponse();
+    }
+
+    private static String position(TokenStreamLocation location) {
+        if (location == null || location == TokenStreamLocation.NA) {
+            return "";
+        }
+        return " (line " + location.getLineNr() + ", column " + location.getColumnNr() + ")";
+    }
+
+    public ImportProgressResponse getProgress(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw ResourceNotFoundException.forField("Import", "id", jobId);
+        }
+        return job.toResponse();
+    }
+
+    public List<ImportProgressResponse> getRecentJobs() {
+        return jobs.values().stream()
+                .sorted((a, b) -> b.startedAt.compareTo(a.startedAt))
+                .map(ImportJob::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    private void importChunk(List<PostRequest> chunk, ImportJob job) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<Post> imported = transactionTemplate.execute(status -> {
+            // the whole categories table, small enough to be the dictionary of this chunk
+            List<Category> categories = categoryRepository.findAll();
+            Map<Long, Category> byId = categories.stream()
+                    .collect(Collectors.toMap(Category::getId, Function.identity()));
+            Map<String, Category> byName = categories.stream()
+                    .collect(Collectors.toMap(Category::getName, Function.identity()));
+
+            List<Post> posts = new ArrayList<>(chunk.size());
+            for (PostRequest record : chunk) {
+                long recordNumber = job.processed.incrementAndGet();
+                String error = validate(record, byId, byName);
+                if (error != null) {
+                    job.failed.incrementAndGet();
+                    job.error("record " + recordNumber + ": " + error);
+                    continue;
+                }
+
+                Post post = new Post();
+                post.setTitle(record.getTitle());
+                post.setContent(record.getContent());
+                if (record.getCategoryIds() != null) {
+                    record.getCategoryIds().forEach(id -> post.addCategory(byId.get(id)));
+                }
+                if (record.getCategoryNames() != null) {
+                    record.getCategoryNames().forEach(name -> post.addCategory(byName.get(name)));
+                }
+                entityManager.persist(post);
+                posts.add(post);
+            }
+
+            entityManager.flush();
+            entityManager.clear();
+            return posts;
+        });
+
+        // committed: make the new posts searchable and count them in their categories
+        for (Post post : imported) {
+            searchIndex.index(post.getId(), post.getTitle(), post.getContent());
+            post.getCategories().forEach(category -> categoryPostCounts.adjust(category.getId(), 1));
+        }
+        if (!imported.isEmpty()) {
+            homepageFeedCache.invalidateAll();
+        }
+        job.imported.addAndGet(imported.size());
+        chunk.clear();
+    }
+
+    private String validate(PostRequest record, Map<Long, Category> byId, Map<String, Category> byName) {
+        Set<ConstraintViolation<PostRequest>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (record.getCategoryIds() != null) {
+            for (Long id : record.getCategoryIds()) {
+                if (!byId.containsKey(id)) {
+                    return String.format("Category not found with id: %d", id);
+                }
+            }
+        }
+        if (record.getCategoryNames() != null) {
+            for (String name : record.getCategoryNames()) {
+                if (!byName.containsKey(name)) {
+                    return String.format("Category not found with name: %s", name);
+                }
+            }
+        }
+        return null;
+    }
+
+    private ImportJob startJob() {
+        // keep only the most recent jobs around
+        if (jobs.size() >= MAX_KEPT_JOBS) {
+            jobs.values().stream()
+                    .filter(job -> job.finishedAt != null)
+                    .min((a, b) -> a.startedAt.compareTo(b.startedAt))
+                    .ifPresent(oldest -> jobs.remove(oldest.id));
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        return job;
+    }
+
+    private static final class ImportJob {
+
+        private final String id;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile String status = RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile long endNanos;
+
+        private ImportJob(String id) {
+            this.id = id;
+        }
+
+        private void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        private void finish(String finalStatus) {
+            endNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private double throughput() {
+            long end = finishedAt != null ? endNanos : System.nanoTime();
+            double seconds = Duration.ofNanos(end - startNanos).toMillis() / 1000.0;
+            return seconds > 0 ? imported.get() / seconds : 0;
+        }
+
+        private ImportProgressResponse toResponse() {
+            List<String> reportedErrors;
+            synchronized (errors) {
+                reportedErrors = new ArrayList<>(errors);
+            }
+            return new ImportProgressResponse(id, status, processed.get(), imported.get(), failed.get(),
+                    throughput(), startedAt, finishedAt, reportedErrors);
+        }
+    }
+}
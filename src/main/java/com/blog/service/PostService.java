@@ -1,5 +1,11 @@
 package com.blog.service;
 
+import com.blog.cache.FeedPage;
+import com.blog.cache.HomepageFeedCache;
+import com.blog.cache.PostDetailCache;
+import com.blog.counter.CategoryPostCounts;
+import com.blog.counter.CommentCountBuffer;
+import com.blog.datasource.ReplicaRouting;
 import com.blog.dtos.*;
 import com.blog.entity.Category;
 import com.blog.entity.Post;
@@ -7,28 +13,73 @@ import com.blog.exception.ResourceNotFoundException;
 import com.blog.repository.CategoryRepository;
 import com.blog.dtos.CategoryResponse;
 import com.blog.dtos.CommentResponse;
+import com.blog.repository.PostCategoryView;
 import com.blog.repository.PostRepository;
+import com.blog.repository.PostSummaryView;
+import com.blog.repository.PostVersionView;
+import com.blog.search.SearchHit;
+import com.blog.search.SearchIndex;
+import com.blog.search.SearchOperator;
+import com.blog.search.SearchResult;
+import com.blog.trending.RankedPost;
+import com.blog.trending.TrendingPosts;
 import com.blog.dtos.PostRequest;
 import com.blog.dtos.PostResponse;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "blog.service", description = "Service method calls, by route")
 @RequiredArgsConstructor
 @Slf4j
 public class PostService {
 
+    public static final int MAX_FEED_SIZE = 100;
+    public static final int MAX_SEARCH_SIZE = 100;
+
+    // posts written per chunk of the export, the persistence context is cleared after each one
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final PostRepository postRepository;
     private final CategoryRepository categoryRepository;
+    private final SearchIndex searchIndex;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final PostDetailCache postDetailCache;
+    private final HomepageFeedCache homepageFeedCache;
+    private final CommentCountBuffer commentCountBuffer;
+    private final CategoryPostCounts categoryPostCounts;
+    private final TrendingPosts trendingPosts;
+
+    @Qualifier("readOnlyTransactionTemplate")
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     /**
      * Create a new post with categories
@@ -46,13 +97,20 @@ public class PostService {
         post.setTitle(request.getTitle());
         post.setContent(request.getContent());
 
-        // Fetch categories by IDs
-        Set<Category> categories = fetchCategoriesByIds(request.getCategoryIds());
+        // Fetch categories by IDs and/or names
+        Set<Category> categories = resolveCategories(request);
         post.setCategories(categories);
 
         Post savedPost = postRepository.save(post);
         log.info("Post created successfully with id: {}", savedPost.getId());
 
+        indexAfterCommit(savedPost);
+        Set<Long> categoryIds = categoryIds(categories);
+        TransactionCallbacks.afterCommit(() -> {
+            categoryPostCounts.increment(categoryIds);
+            homepageFeedCache.invalidateAll();
+        });
+
         return convertToResponse(savedPost);
     }
 
@@ -71,12 +129,96 @@ public class PostService {
         log.debug("Fetching posts with pagination: page={}, size={}",
                 pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<Post> postPage = postRepository.findAll(pageable);
+        Page<Long> idPage = postRepository.findPageIds(pageable);
         log.info("Found {} posts in total, {} pages",
-                postPage.getTotalElements(), postPage.getTotalPages());
+                idPage.getTotalElements(), idPage.getTotalPages());
+
+        // Load the posts of the page with their associations, then convert to Page<PostResponse>
+        return toResponsePage(idPage);
+    }
+
+    /**
+     * One of the first pages of the default listing, already serialized (see HomepageFeedCache)
+     *
+     * Built from the same page and version as getAllPosts and getPageVersion, in one
+     * read-only transaction, and serialized with the application ObjectMapper, so the
+     * bytes are those the JSON message converter would write. Read from the primary.
+     */
+    public FeedPage getHomepagePage(Pageable pageable) {
+        return homepageFeedCache.get(pageable.getPageNumber(), () -> readForCache(status -> {
+            ResourceVersion version = getPageVersion(pageable);
+            Page<PostResponse> page = getAllPosts(pageable);
+            Set<Long> postIds = page.getContent().stream()
+                    .map(PostResponse::getId)
+                    .collect(Collectors.toSet());
+            return new FeedPage(objectMapper.writeValueAsBytes(page), version, postIds);
+        }));
+    }
+
+    /**
+     * Get post summaries with pagination (view=summary)
+     *
+     * Served from a projection query: no content, no comments, no entities,
+     * only the page query, the count query and one query for the categories.
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryResponse> getPostSummaries(Pageable pageable) {
+        log.debug("Fetching post summaries with pagination: page={}, size={}",
+                pageable.getPageNumber(), pageable.getPageSize());
+
+        Page<PostSummaryView> summaryPage = postRepository.findSummaries(pageable);
+        return toSummaryPage(summaryPage);
+    }
+
+    /**
+     * Get post summaries by category name with pagination (view=summary)
+     */
+    @Transactional(readOnly = true)
+    public Page<PostSummaryResponse> getPostSummariesByCategory(String categoryName, Pageable pageable) {
+        log.debug("Fetching post summaries for category: {}", categoryName);
 
-        // Convert Page<Post> to Page<PostResponse>
-        return postPage.map(this::convertToResponse);
+        Page<PostSummaryView> summaryPage = postRepository.findSummariesByCategoryName(categoryName, pageable);
+        return toSummaryPage(summaryPage);
+    }
+
+    /**
+     * Get the post feed with keyset (cursor) pagination
+     *
+     * Pages by (createdAt, id) newest first. One extra row is fetched to know
+     * whether another window exists, so no COUNT(*) is needed, and the seek
+     * predicate keeps the cost of a deep window the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PostResponse> getPostFeed(String cursor, int size) {
+        int windowSize = Math.max(1, Math.min(size, MAX_FEED_SIZE));
+        log.debug("Fetching post feed: cursor={}, size={}", cursor, windowSize);
+
+        List<Long> ids = findFeedIds(cursor, windowSize);
+
+        boolean hasNext = ids.size() > windowSize;
+        List<Post> window = loadWithAssociations(hasNext ? ids.subList(0, windowSize) : ids);
+
+        String nextCursor = null;
+        if (hasNext) {
+            Post last = window.get(window.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<PostResponse> content = window.stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+
+        return new CursorPageResponse<>(content, content.size(), nextCursor, hasNext);
+    }
+
+    // ids of a feed window plus one, to know whether another window exists
+    private List<Long> findFeedIds(String cursor, int windowSize) {
+        Pageable limit = PageRequest.of(0, windowSize + 1);
+        if (cursor == null || cursor.isBlank()) {
+            return postRepository.findFeedFirst(limit);
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        return postRepository.findFeedAfter(position.getCreatedAt(), position.getId(), limit);
     }
 
     /**
@@ -96,19 +238,201 @@ public class PostService {
     }
 
     /**
-     * Get post by ID
+     * Export all posts as NDJSON (one PostResponse per line), in id order
+     *
+     * Runs in bounded memory whatever the size of the table:
+     * - posts come from a scrolling query (fetch size, no List of all rows)
+     * - associations are loaded per chunk with the fetch plans, not per post
+     * - the persistence context is cleared after each chunk is written
+     *
+     * Every line carries the post id, so an interrupted dump can be resumed
+     * by passing the last id received as sinceId.
      */
     @Transactional(readOnly = true)
+    public void exportPosts(Long sinceId, OutputStream out) {
+        log.debug("Exporting posts after id: {}", sinceId);
+
+        long exported = 0;
+        List<Post> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        try (Stream<Post> posts = postRepository.streamAllAfter(sinceId)) {
+            for (Post post : (Iterable<Post>) posts::iterator) {
+                chunk.add(post);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    exported += writeExportChunk(chunk, out);
+                }
+            }
+            exported += writeExportChunk(chunk, out);
+        }
+
+        log.info("Exported {} posts after id: {}", exported, sinceId);
+    }
+
+    private int writeExportChunk(List<Post> chunk, OutputStream out) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        // initialize the associations of the whole chunk, one query each
+        List<Long> ids = chunk.stream().map(Post::getId).collect(Collectors.toList());
+        postRepository.findWithCategoriesByIdIn(ids);
+        postRepository.findWithCommentsByIdIn(ids);
+
+        try {
+            for (Post post : chunk) {
+                out.write(objectMapper.writeValueAsBytes(convertToResponse(post)));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Export interrupted in the chunk starting at post id " + ids.get(0), ex);
+        }
+
+        int written = chunk.size();
+        chunk.clear();
+        entityManager.clear();
+        return written;
+    }
+
+    /**
+     * Get post by ID
+     *
+     * Read-through PostDetailCache: a hit neither opens a transaction nor
+     * touches the database. On a miss the post is loaded from the primary in a read-only
+     * transaction, once for all the requests missing it at the same time (single flight).
+     * Every post returned counts as a view for the trending ranking.
+     */
     public PostResponse getPostById(Long id) {
         log.debug("Fetching post with id: {}", id);
 
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.error("Post not found with id: {}", id);
-                    return ResourceNotFoundException.forId("Post", id);
-                });
+        PostResponse post = postDetailCache.get(id, key -> readForCache(status -> loadPost(key)));
+        trendingPosts.recordView(id);
+        return post;
+    }
+
+    /**
+     * Get the trending posts, most viewed recently first
+     *
+     * The ranking comes from memory (TrendingPosts), then one query by primary key
+     * for the summaries of those posts: the cost depends on the limit only.
+     */
+    @Transactional(readOnly = true)
+    public List<TrendingPostResponse> getTrendingPosts(int limit) {
+        List<RankedPost> ranked = trendingPosts.top(Math.max(1, limit));
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = ranked.stream()
+                .map(RankedPost::getPostId)
+                .collect(Collectors.toList());
+        Map<Long, PostSummaryResponse> summaries = toSummaryResponses(postRepository.findSummariesByIdIn(ids)).stream()
+                .collect(Collectors.toMap(PostSummaryResponse::getId, Function.identity()));
+
+        // a post deleted since it was ranked is skipped
+        List<TrendingPostResponse> trending = new ArrayList<>(ranked.size());
+        for (RankedPost post : ranked) {
+            PostSummaryResponse summary = summaries.get(post.getPostId());
+            if (summary != null) {
+                trending.add(new TrendingPostResponse(trending.size() + 1, post.getScore(), summary));
+            }
+        }
+        return trending;
+    }
+
+    /**
+     * Get the version (ETag, Last-Modified) of a post for conditional GET
+     *
+     * Derived from the post updatedAt, its newest comment, its comment count and its
+     * categories (a renamed category changes the post response, not the post row).
+     * A cached response gives it without touching the database, otherwise it costs
+     * one aggregate query and one for the categories; the entity graph is never loaded.
+     * Both paths digest the same values, so they agree on the ETag.
+     */
+    public ResourceVersion getPostVersion(Long id) {
+        PostResponse cached = postDetailCache.getIfPresent(id);
+        if (cached != null) {
+            List<CommentResponse> comments = cached.getComments();
+            LocalDateTime lastCommentAt = comments.stream()
+                    .map(comment -> comment.getUpdatedAt() != null ? comment.getUpdatedAt() : comment.getCreatedAt())
+                    .max(LocalDateTime::compareTo)
+                    .orElse(null);
+            return new VersionDigest()
+                    .addPost(cached.getId(), cached.getUpdatedAt(), lastCommentAt, comments.size())
+                    .addCategories(cached.getCategories())
+                    .build();
+        }
+
+        List<PostVersionView> versions = postRepository.findVersionsByIdIn(List.of(id));
+        if (versions.isEmpty()) {
+            throw ResourceNotFoundException.forId("Post", id);
+        }
+        return new VersionDigest()
+                .addPost(versions.get(0))
+                .addCategories(findCategories(List.of(id)).getOrDefault(id, Set.of()))
+                .build();
+    }
+
+    /**
+     * Get the version of a page of posts for conditional GET
+     *
+     * Costs the id page, its count, one aggregate query and one for the categories, whatever the view;
+     * the page is not loaded, converted nor serialized. ETag only, no Last-Modified.
+     */
+    @Transactional(readOnly = true)
+    public ResourceVersion getPageVersion(Pageable pageable) {
+        return pageVersion(postRepository.findPageIds(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion getCategoryPageVersion(String categoryName, Pageable pageable) {
+        return pageVersion(postRepository.findPageIdsByCategoryName(categoryName, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public ResourceVersion getFeedVersion(String cursor, int size) {
+        int windowSize = Math.max(1, Math.min(size, MAX_FEED_SIZE));
+        List<Long> ids = findFeedIds(cursor, windowSize);
+
+        // the extra id is part of the version: it decides hasNext and nextCursor
+        VersionDigest digest = new VersionDigest().add(cursor).add(windowSize);
+        return addVersions(digest, ids).buildEtagOnly();
+    }
+
+    private ResourceVersion pageVersion(Page<Long> idPage) {
+        VersionDigest digest = new VersionDigest()
+                .add(idPage.getNumber())
+                .add(idPage.getSize())
+                .add(idPage.getSort())
+                .add(idPage.getTotalElements());
+        return addVersions(digest, idPage.getContent()).buildEtagOnly();
+    }
+
+    // adds the version and the categories of each post in the order of the ids
+    private VersionDigest addVersions(VersionDigest digest, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return digest;
+        }
+
+        Map<Long, PostVersionView> versionsById = postRepository.findVersionsByIdIn(ids).stream()
+                .collect(Collectors.toMap(PostVersionView::getId, Function.identity()));
+        Map<Long, Set<CategoryResponse>> categoriesById = findCategories(ids);
+        for (Long id : ids) {
+            PostVersionView version = versionsById.get(id);
+            if (version != null) {
+                digest.addPost(version).addCategories(categoriesById.getOrDefault(id, Set.of()));
+            }
+        }
+        return digest;
+    }
+
+    private PostResponse loadPost(Long id) {
+        List<Post> posts = loadWithAssociations(List.of(id));
+        if (posts.isEmpty()) {
+            log.error("Post not found with id: {}", id);
+            throw ResourceNotFoundException.forId("Post", id);
+        }
 
-        return convertToResponse(post);
+        return convertToResponse(posts.get(0));
     }
 
     /**
@@ -125,16 +449,32 @@ public class PostService {
 
         post.setTitle(request.getTitle());
         post.setContent(request.getContent());
+        // set explicitly: a change of categories alone does not make the post dirty,
+        // and updatedAt versions the post for conditional GET
+        post.setUpdatedAt(LocalDateTime.now());
 
         // Update categories
-        // Clear existing categories and add new ones
-        post.getCategories().clear();
-        Set<Category> newCategories = fetchCategoriesByIds(request.getCategoryIds());
+        // Keep the ones still requested and add the new ones, so only changed rows are written
+        Set<Category> newCategories = resolveCategories(request);
+        Set<Long> removedIds = categoryIds(post.getCategories());
+        Set<Long> addedIds = categoryIds(newCategories);
+        removedIds.removeAll(addedIds);
+        addedIds.removeAll(categoryIds(post.getCategories()));
+
+        post.getCategories().retainAll(newCategories);
         post.getCategories().addAll(newCategories);
 
         Post updatedPost = postRepository.save(post);
         log.info("Post updated successfully with id: {}", id);
 
+        indexAfterCommit(updatedPost);
+        TransactionCallbacks.afterCommit(() -> {
+            postDetailCache.invalidate(id);
+            homepageFeedCache.postChanged(id);
+            categoryPostCounts.increment(addedIds);
+            categoryPostCounts.decrement(removedIds);
+        });
+
         return convertToResponse(updatedPost);
     }
 
@@ -148,28 +488,50 @@ public class PostService {
     public void deletePost(Long id) {
         log.debug("Deleting post with id: {}", id);
 
-        if (!postRepository.existsById(id)) {
-            log.error("Cannot delete: Post not found with id: {}", id);
-            throw ResourceNotFoundException.forId("Post", id);
-        }
+        Post post = postRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Cannot delete: Post not found with id: {}", id);
+                    return ResourceNotFoundException.forId("Post", id);
+                });
+        Set<Long> categoryIds = categoryIds(post.getCategories());
 
-        postRepository.deleteById(id);
+        postRepository.delete(post);
         log.info("Post deleted successfully with id: {} (including all comments)", id);
+
+        TransactionCallbacks.afterCommit(() -> {
+            searchIndex.remove(id);
+            postDetailCache.invalidate(id);
+            homepageFeedCache.invalidateAll();
+            commentCountBuffer.forget(id);
+            categoryPostCounts.decrement(categoryIds);
+            trendingPosts.forget(id);
+        });
     }
 
     /**
      * Search posts by keyword
+     *
+     * Ranked full-text search served by the in-memory SearchIndex.
+     * Only the posts on the requested page are loaded from the database.
      */
     @Transactional(readOnly = true)
-    public List<PostResponse> searchPosts(String keyword) {
-        log.debug("Searching posts with keyword: {}", keyword);
+    public Page<PostResponse> searchPosts(String keyword, SearchOperator operator, Pageable pageable) {
+        log.debug("Searching posts with keyword: {} ({})", keyword, operator);
 
-        List<Post> posts = postRepository.searchPosts(keyword);
-        log.info("Found {} posts matching keyword '{}'", posts.size(), keyword);
+        SearchResult result = searchIndex.search(keyword, operator,
+                pageable.getOffset(), pageable.getPageSize());
+        log.info("Found {} posts matching keyword '{}'", result.getTotalHits(), keyword);
 
-        return posts.stream()
+        List<Long> ids = result.getHits().stream()
+                .map(SearchHit::getPostId)
+                .collect(Collectors.toList());
+
+        // keeps the ranking order; a post deleted since it was ranked is simply skipped
+        List<PostResponse> content = loadWithAssociations(ids).stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, result.getTotalHits());
     }
 
     /**
@@ -179,38 +541,180 @@ public class PostService {
     public Page<PostResponse> getPostsByCategory(String categoryName, Pageable pageable) {
         log.debug("Fetching posts for category: {}", categoryName);
 
-        Page<Post> postPage = postRepository.findByCategoryName(categoryName, pageable);
-        log.info("Found {} posts in category '{}'", postPage.getTotalElements(), categoryName);
+        Page<Long> idPage = postRepository.findPageIdsByCategoryName(categoryName, pageable);
+        log.info("Found {} posts in category '{}'", idPage.getTotalElements(), categoryName);
+
+        return toResponsePage(idPage);
+    }
+
+    /**
+     * Helper method: load posts by id with their categories and comments
+     *
+     * One query per association for the whole list (see PostRepository),
+     * instead of two lazy loads per post in convertToResponse.
+     * The result keeps the order of the given ids.
+     */
+    private List<Post> loadWithAssociations(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Post> postsById = postRepository.findWithCategoriesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        // initializes the comments of the posts already in the persistence context
+        postRepository.findWithCommentsByIdIn(ids);
 
-        return postPage.map(this::convertToResponse);
+        return ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Helper method: read-only transaction on the primary, for reads that fill a cache
+     * with read replicas a lagging replica could bring back what a write has just invalidated
+     */
+    private <T> T readForCache(TransactionCallback<T> read) {
+        try (ReplicaRouting.Scope primary = ReplicaRouting.primaryOnly()) {
+            return readOnlyTransactionTemplate.execute(read);
+        }
+    }
+
+    private Page<PostSummaryResponse> toSummaryPage(Page<PostSummaryView> summaryPage) {
+        List<PostSummaryResponse> content = toSummaryResponses(summaryPage.getContent());
+        return new PageImpl<>(content, summaryPage.getPageable(), summaryPage.getTotalElements());
+    }
+
+    private List<PostSummaryResponse> toSummaryResponses(List<PostSummaryView> summaries) {
+        List<Long> ids = summaries.stream()
+                .map(PostSummaryView::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, Set<CategoryResponse>> categoriesByPostId = findCategories(ids);
+
+        return summaries.stream()
+                .map(summary -> new PostSummaryResponse(
+                        summary.getId(),
+                        summary.getTitle(),
+                        summary.getExcerpt(),
+                        summary.getCreatedAt(),
+                        summary.getUpdatedAt(),
+                        categoriesByPostId.getOrDefault(summary.getId(), Set.of()),
+                        summary.getCommentCount() + commentCountBuffer.pending(summary.getId())
+                ))
+                .collect(Collectors.toList());
+    }
+
+    // categories of several posts in one query, by post id
+    private Map<Long, Set<CategoryResponse>> findCategories(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return postRepository.findCategoriesByPostIdIn(ids).stream()
+                .collect(Collectors.groupingBy(PostCategoryView::getPostId,
+                        Collectors.mapping(category -> new CategoryResponse(
+                                category.getId(),
+                                category.getName(),
+                                category.getDescription()
+                        ), Collectors.toSet())));
+    }
+
+    private Page<PostResponse> toResponsePage(Page<Long> idPage) {
+        List<PostResponse> content = loadWithAssociations(idPage.getContent()).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    private static Set<Long> categoryIds(Set<Category> categories) {
+        return categories.stream()
+                .map(Category::getId)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * Helper method: (re)index a post in the search index once the write is committed
+     */
+    private void indexAfterCommit(Post post) {
+        Long id = post.getId();
+        String title = post.getTitle();
+        String content = post.getContent();
+        TransactionCallbacks.afterCommit(() -> searchIndex.index(id, title, content));
+    }
+
+    /**
+     * Helper method: resolve the categories of a post request
+     *
+     * Categories can be given by id, by name, or both.
+     * Each list is resolved with a single IN query, whatever its size.
+     */
+    private Set<Category> resolveCategories(PostRequest request) {
+        Set<Category> categories = new HashSet<>();
+
+        if (request.getCategoryIds() != null && !request.getCategoryIds().isEmpty()) {
+            categories.addAll(fetchCategoriesByIds(request.getCategoryIds()));
+        }
+        if (request.getCategoryNames() != null && !request.getCategoryNames().isEmpty()) {
+            categories.addAll(fetchCategoriesByNames(request.getCategoryNames()));
+        }
+
+        return categories;
     }
 
     /**
      * Helper method: Fetch categories by IDs
      *
      * This validates that all category IDs exist
-     * If any ID doesn't exist, throws ResourceNotFoundException
+     * If any ID doesn't exist, throws ResourceNotFoundException listing every missing ID
      */
     private Set<Category> fetchCategoriesByIds(Set<Long> categoryIds) {
-        Set<Category> categories = new HashSet<>();
-
-        for (Long categoryId : categoryIds) {
-            Category category = categoryRepository.findById(categoryId)
-                    .orElseThrow(() -> {
-                        log.error("Category not found with id: {}", categoryId);
-                        return ResourceNotFoundException.forId("Category", categoryId);
-                    });
-            categories.add(category);
+        Set<Category> categories = new HashSet<>(categoryRepository.findAllById(categoryIds));
+
+        if (categories.size() != categoryIds.size()) {
+            Set<Long> found = categories.stream()
+                    .map(Category::getId)
+                    .collect(Collectors.toSet());
+            Set<Long> missing = categoryIds.stream()
+                    .filter(id -> !found.contains(id))
+                    .collect(Collectors.toCollection(TreeSet::new));
+            log.error("Categories not found with ids: {}", missing);
+            throw ResourceNotFoundException.forField("Category", "ids", missing);
         }
 
         log.debug("Fetched {} categories", categories.size());
         return categories;
     }
 
+    /**
+     * Helper method: Fetch categories by names
+     *
+     * Same as fetchCategoriesByIds, with names
+     */
+    private Set<Category> fetchCategoriesByNames(Set<String> categoryNames) {
+        Set<Category> categories = new HashSet<>(categoryRepository.findByNameIn(categoryNames));
+
+        if (categories.size() != categoryNames.size()) {
+            Set<String> found = categories.stream()
+                    .map(Category::getName)
+                    .collect(Collectors.toSet());
+            Set<String> missing = categoryNames.stream()
+                    .filter(name -> !found.contains(name))
+                    .collect(Collectors.toCollection(TreeSet::new));
+            log.error("Categories not found with names: {}", missing);
+            throw ResourceNotFoundException.forField("Category", "names", missing);
+        }
+
+        log.debug("Fetched {} categories by name", categories.size());
+        return categories;
+    }
+
     /**
      * Convert Post entity to PostResponse DTO
+     * (package-private so the JMH benchmarks can measure it on its own)
      */
-    private PostResponse convertToResponse(Post post) {
+    PostResponse convertToResponse(Post post) {
         // Convert categories to CategoryResponse
         Set<CategoryResponse> categoryResponses = post.getCategories().stream()
                 .map(category -> new CategoryResponse(
@@ -227,6 +731,7 @@ public class PostService {
                         comment.getContent(),
                         comment.getAuthorName(),
                         comment.getCreatedAt(),
+                        comment.getUpdatedAt(),
                         post.getId()  // postId
                 ))
                 .collect(Collectors.toList());
@@ -0,0 +1,86 @@
+package com.blog.service;
+
+import com.blog.dtos.CategoryResponse;
+import com.blog.dtos.ResourceVersion;
+import com.blog.repository.PostVersionView;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Builds a ResourceVersion from the values a response depends on
+ *
+ * The ETag is a SHA-256 digest of the parts, in the order they are added,
+ * so equal inputs give equal tags whichever path (cache or database) produced them.
+ * Last-Modified is the latest timestamp seen.
+ */
+class VersionDigest {
+
+    private static final int TAG_BYTES = 16;
+
+    private final MessageDigest digest;
+    private LocalDateTime lastModified;
+
+    VersionDigest() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    VersionDigest add(Object part) {
+        digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '|');
+        return this;
+    }
+
+    VersionDigest addPost(Long id, LocalDateTime updatedAt, LocalDateTime lastCommentAt, long commentCount) {
+        add(id).add(updatedAt).add(lastCommentAt).add(commentCount);
+        touch(updatedAt);
+        touch(lastCommentAt);
+        return this;
+    }
+
+    VersionDigest addPost(PostVersionView version) {
+        return addPost(version.getId(), version.getUpdatedAt(), version.getLastCommentAt(),
+                version.getCommentCount() != null ? version.getCommentCount() : 0);
+    }
+
+    // in id order, the sets of the cache and of the database iterate differently
+    VersionDigest addCategories(Collection<CategoryResponse> categories) {
+        List<CategoryResponse> byId = new ArrayList<>(categories);
+        byId.sort(Comparator.comparing(CategoryResponse::getId));
+        add(byId.size());
+        for (CategoryResponse category : byId) {
+            add(category.getId()).add(category.getName()).add(category.getDescription());
+        }
+        return this;
+    }
+
+    ResourceVersion build() {
+        return new ResourceVersion(etag(), lastModified);
+    }
+
+    // for lists: a post leaving the list does not move Last-Modified forward, only the ETag is reliable
+    ResourceVersion buildEtagOnly() {
+        return new ResourceVersion(etag(), null);
+    }
+
+    private String etag() {
+        return "W/\"" + HexFormat.of().formatHex(digest.digest(), 0, TAG_BYTES) + "\"";
+    }
+
+    private void touch(LocalDateTime timestamp) {
+        if (timestamp != null && (lastModified == null || timestamp.isAfter(lastModified))) {
+            lastModified = timestamp;
+        }
+    }
+}
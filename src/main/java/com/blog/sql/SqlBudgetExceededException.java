@@ -0,0 +1,11 @@
+package com.blog.sql;
+
+/**
+ * Thrown in strict mode when a scope runs more statements than its budget allows
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
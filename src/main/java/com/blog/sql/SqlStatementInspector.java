@@ -0,0 +1,22 @@
+package com.blog.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hands every statement Hibernate prepares to the SqlStatementScope of the thread, if any
+ *
+ * Registered with hibernate.session_factory.statement_inspector, so Hibernate creates it
+ * with its no-arg constructor; the state lives in the thread-bound scope. Statements run
+ * with JdbcTemplate (e.g. CommentCountBuffer) do not go through Hibernate and are not seen.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlStatementScope scope = SqlStatementScope.current();
+        if (scope != null) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+}
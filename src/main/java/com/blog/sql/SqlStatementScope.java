@@ -0,0 +1,118 @@
+package com.blog.sql;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Statements prepared by Hibernate on the current thread, between open() and close()
+ *
+ * Opened per request by SqlBudgetFilter, or around any block of code (tests, jobs).
+ * Statements are grouped by shape: the SQL with literals removed and IN lists collapsed,
+ * so the same lazy load repeated for each row of a page shows up as one shape run N times.
+ *
+ * In strict mode the statement that goes over the budget throws SqlBudgetExceededException.
+ */
+public final class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final boolean strict;
+    private final SqlStatementScope previous;
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int statementCount;
+
+    private SqlStatementScope(int maxStatements, int maxRepeats, boolean strict, SqlStatementScope previous) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.strict = strict;
+        this.previous = previous;
+    }
+
+    /**
+     * Start counting on this thread; a limit of 0 means no limit
+     */
+    public static SqlStatementScope open(int maxStatements, int maxRepeats, boolean strict) {
+        SqlStatementScope scope = new SqlStatementScope(maxStatements, maxRepeats, strict, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // the scope of this thread, or null when nothing is counting
+    public static SqlStatementScope current() {
+        return CURRENT.get();
+    }
+
+    void record(String sql) {
+        statementCount++;
+        String shape = shape(sql);
+        int repeats = shapes.merge(shape, 1, Integer::sum);
+
+        if (!strict) {
+            return;
+        }
+        if (exceeds(statementCount, maxStatements)) {
+            throw new SqlBudgetExceededException(String.format(
+                    "%d SQL statements, the budget is %d; most repeated: %s",
+                    statementCount, maxStatements, describeRepeatedShapes(3)));
+        }
+        if (exceeds(repeats, maxRepeats)) {
+            throw new SqlBudgetExceededException(String.format(
+                    "Possible N+1: the same statement ran %d times, the limit is %d: %s",
+                    repeats, maxRepeats, shape));
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public boolean isOverBudget() {
+        return exceeds(statementCount, maxStatements)
+                || shapes.values().stream().anyMatch(repeats -> exceeds(repeats, maxRepeats));
+    }
+
+    /**
+     * Shapes run more than once, most repeated first, as "count x shape"
+     */
+    public String describeRepeatedShapes(int limit) {
+        List<String> repeated = shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> entry.getValue() + " x " + entry.getKey())
+                .collect(Collectors.toList());
+        return repeated.isEmpty() ? "none" : String.join(" | ", repeated);
+    }
+
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private static boolean exceeds(int value, int limit) {
+        return limit > 0 && value > limit;
+    }
+}
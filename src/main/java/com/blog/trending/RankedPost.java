@@ -0,0 +1,12 @@
+package com.blog.trending;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RankedPost {
+
+    private Long postId;
+    private double score;
+}
@@ -0,0 +1,84 @@
+package com.blog.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The K posts with the highest scores, kept up to date one score change at a time
+ *
+ * Meant for scores that only grow (see TrendingPosts): a post outside the top K can
+ * only enter it when its own score changes, so offering every changed score is enough.
+ * An offer costs O(log K) and never looks at the posts outside the top K.
+ * Not thread safe, TrendingPosts calls it under its lock.
+ */
+public class TopK {
+
+    // lowest first, ties broken by id so two posts with the same score are two entries
+    private static final Comparator<RankedPost> ORDER = Comparator
+            .comparingDouble(RankedPost::getScore)
+            .thenComparing(RankedPost::getPostId);
+
+    private final int capacity;
+
+    private final Map<Long, RankedPost> members = new HashMap<>();
+    private final TreeSet<RankedPost> ranking = new TreeSet<>(ORDER);
+
+    public TopK(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * New score of a post, which enters the top K if it beats the lowest member
+     *
+     * @return whether the top K changed
+     */
+    public boolean offer(Long postId, double score) {
+        RankedPost current = members.get(postId);
+        if (current != null) {
+            ranking.remove(current);
+        } else if (members.size() >= capacity) {
+            RankedPost lowest = ranking.first();
+            if (score <= lowest.getScore()) {
+                return false;
+            }
+            ranking.pollFirst();
+            members.remove(lowest.getPostId());
+        }
+
+        RankedPost ranked = new RankedPost(postId, score);
+        members.put(postId, ranked);
+        ranking.add(ranked);
+        return true;
+    }
+
+    public boolean remove(Long postId) {
+        RankedPost current = members.remove(postId);
+        return current != null && ranking.remove(current);
+    }
+
+    /**
+     * Replace the content with the best of the given scores
+     */
+    public void rebuild(Map<Long, Double> scores) {
+        members.clear();
+        ranking.clear();
+        scores.forEach(this::offer);
+    }
+
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * Highest score first, a copy
+     */
+    public List<RankedPost> snapshot() {
+        List<RankedPost> snapshot = new ArrayList<>(ranking.size());
+        ranking.descendingIterator().forEachRemaining(snapshot::add);
+        return snapshot;
+    }
+}
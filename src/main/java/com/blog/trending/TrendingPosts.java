@@ -0,0 +1,249 @@
+package com.blog.trending;
+
+import com.blog.counter.StripedCounters;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Post views and the trending ranking, in memory
+ *
+ * - a view only adds to a striped counter (StripedCounters), no lock, and no allocation for a post
+ *   already viewed since the last tick
+ * - every tick drains the counters into the scores and offers the changed scores to the TopK
+ * - the score of a post is its number of views decayed exponentially with their age (half-life),
+ *   kept with forward decay: a view at time t weighs exp(rate * (t - landmark)), so scores only
+ *   grow and never need to be decayed one by one. The landmark is moved forward before the
+ *   weights get large, which scales every score by the same factor and keeps the ranking.
+ * - view counts and scores are written to posts in one JDBC batch per persist interval and
+ *   reloaded at startup, so they survive a restart (the views of the last interval may not)
+ *
+ * Reading the ranking costs O(K): it is a copy of the TopK published at the end of each tick.
+ */
+@Component
+@Slf4j
+public class TrendingPosts implements MeterBinder {
+
+    private static final String PERSIST_SQL =
+            "UPDATE posts SET view_count = view_count + ?, trend_score = ?, trend_scored_at = ? WHERE id = ?";
+    private static final String LOAD_SQL =
+            "SELECT id, trend_score, trend_scored_at FROM posts WHERE trend_scored_at > ?";
+
+    // a post with fewer recent views than this is dropped from memory
+    private static final double MIN_SCORE = 0.01;
+    // the landmark is moved once the weight of a new view reaches e^20
+    private static final double MAX_EXPONENT = 20;
+    // scores older than this many half-lives are not reloaded: decayed by more than 10^6
+    private static final int RELOAD_HALF_LIVES = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration halfLife;
+    // per millisecond
+    private final double decayRate;
+
+    private final StripedCounters views = new StripedCounters();
+
+    // guarded by this
+    private long landmark = System.currentTimeMillis();
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final Map<Long, Long> unsavedViews = new HashMap<>();
+    private final TopK topK;
+
+    private volatile Ranking ranking = new Ranking(landmark, List.of());
+
+    public TrendingPosts(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${blog.trending.half-life:6h}") Duration halfLife,
+                         @Value("${blog.trending.capacity:100}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.halfLife = halfLife;
+        this.decayRate = Math.log(2) / halfLife.toMillis();
+        this.topK = new TopK(capacity);
+    }
+
+    public void recordView(Long postId) {
+        views.add(postId, 1);
+    }
+
+    /**
+     * The most viewed posts of the last half-lives, highest score first
+     * the score is the decayed number of views, as of the last tick
+     */
+    public List<RankedPost> top(int limit) {
+        Ranking current = ranking;
+        List<RankedPost> posts = current.posts.size() > limit ? current.posts.subList(0, limit) : current.posts;
+
+        double factor = Math.exp(-decayRate * (System.currentTimeMillis() - current.landmark));
+        List<RankedPost> top = new ArrayList<>(posts.size());
+        for (RankedPost post : posts) {
+            top.add(new RankedPost(post.getPostId(), post.getScore() * factor));
+        }
+        return top;
+    }
+
+    /**
+     * The post is gone: drop its views and its score, and let the next post into the top K
+     */
+    public synchronized void forget(Long postId) {
+        views.forget(postId);
+        unsavedViews.remove(postId);
+        scores.remove(postId);
+        if (topK.remove(postId)) {
+            topK.rebuild(scores);
+            publish();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.trending.tick-interval-ms:1000}")
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        if (decayRate * (now - landmark) > MAX_EXPONENT) {
+            moveLandmark(now);
+        }
+
+        Map<Long, Long> deltas = views.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        double weight = Math.exp(decayRate * (now - landmark));
+        boolean changed = false;
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            Long postId = entry.getKey();
+            double score = scores.merge(postId, entry.getValue() * weight, Double::sum);
+            unsavedViews.merge(postId, entry.getValue(), Long::sum);
+            changed |= topK.offer(postId, score);
+        }
+        if (changed) {
+            publish();
+        }
+    }
+
+    /**
+     * Write the views counted since the last persist and the current scores, in one batch
+     */
+    @Scheduled(initialDelayString = "${blog.trending.persist-interval-ms:30000}",
+            fixedDelayString = "${blog.trending.persist-interval-ms:30000}")
+    public void persist() {
+        Map<Long, Long> batch;
+        List<Object[]> updates;
+        synchronized (this) {
+            if (unsavedViews.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            double factor = Math.exp(-decayRate * (now - landmark));
+            Timestamp scoredAt = new Timestamp(now);
+
+            batch = new HashMap<>(unsavedViews);
+            unsavedViews.clear();
+            updates = batch.entrySet().stream()
+                    .map(entry -> new Object[]{
+                            entry.getValue(),
+                            scores.getOrDefault(entry.getKey(), 0.0) * factor,
+                            scoredAt,
+                            entry.getKey()})
+                    .collect(Collectors.toList());
+        }
+
+        // outside the lock: views keep being counted and ranked while the batch is written
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(PERSIST_SQL, updates));
+            log.debug("Persisted views of {} posts", batch.size());
+        } catch (RuntimeException ex) {
+            log.error("Failed to persist views of {} posts, will retry", batch.size(), ex);
+            synchronized (this) {
+                batch.forEach((postId, count) -> unsavedViews.merge(postId, count, Long::sum));
+            }
+        }
+    }
+
+    /**
+     * Reload the scores of the posts viewed recently, decayed to now
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long now = System.currentTimeMillis();
+        Timestamp cutoff = new Timestamp(now - RELOAD_HALF_LIVES * halfLife.toMillis());
+        double toLandmark = Math.exp(decayRate * (now - landmark));
+
+        jdbcTemplate.query(LOAD_SQL, row -> {
+            long scoredAt = row.getTimestamp(3).getTime();
+            double score = row.getDouble(2) * Math.exp(-decayRate * (now - scoredAt));
+            if (score >= MIN_SCORE) {
+                scores.merge(row.getLong(1), score * toLandmark, Double::sum);
+            }
+        }, cutoff);
+
+        topK.rebuild(scores);
+        publish();
+        log.info("Loaded trending scores of {} posts", scores.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        tick();
+        persist();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("blog.trending.tracked", this, TrendingPosts::trackedPosts)
+                .description("Posts with a trending score in memory")
+                .register(registry);
+    }
+
+    private synchronized int trackedPosts() {
+        return scores.size();
+    }
+
+    /**
+     * Move the landmark to now: every score is scaled by the same factor, the ranking stays the same
+     * posts decayed below MIN_SCORE are dropped, unless their views are not persisted yet
+     */
+    private void moveLandmark(long now) {
+        double factor = Math.exp(-decayRate * (now - landmark));
+        scores.replaceAll((postId, score) -> score * factor);
+        scores.entrySet().removeIf(entry -> entry.getValue() < MIN_SCORE && !unsavedViews.containsKey(entry.getKey()));
+        landmark = now;
+
+        topK.rebuild(scores);
+        publish();
+        log.debug("Moved the trending landmark, {} posts tracked", scores.size());
+    }
+
+    private void publish() {
+        ranking = new Ranking(landmark, topK.snapshot());
+    }
+
+    // the top K with the landmark its scores are relative to
+    private static final class Ranking {
+
+        private final long landmark;
+        private final List<RankedPost> posts;
+
+        private Ranking(long landmark, List<RankedPost> posts) {
+            this.landmark = landmark;
+            this.posts = posts;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.blog.web;
+
+import com.blog.sql.SqlStatementScope;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Counts the SQL statements of each API request (see SqlStatementScope)
+ *
+ * - every request records its count in the blog.sql.statements summary, per route
+ * - a request over the budget, or running the same statement more than max-repeats
+ *   times (the N+1 pattern), is logged with its route and the repeated statements
+ * - in strict mode (tests) the statement over the budget fails the request
+ * - bulk endpoints (excluded-paths) are counted but not held to the budget
+ *
+ * Work done after the handler returned on another thread (streamed responses) is not counted.
+ */
+@Component
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final boolean strict;
+    private final List<String> excludedPaths;
+    private final MeterRegistry meterRegistry;
+
+    public SqlBudgetFilter(@Value("${blog.sql.budget.max-statements:20}") int maxStatements,
+                           @Value("${blog.sql.budget.max-repeats:5}") int maxRepeats,
+                           @Value("${blog.sql.budget.strict:false}") boolean strict,
+                           @Value("${blog.sql.budget.excluded-paths:}") List<String> excludedPaths,
+                           MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.strict = strict;
+        this.excludedPaths = excludedPaths;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean excluded = excludedPaths.stream().anyMatch(request.getRequestURI()::startsWith);
+        try (SqlStatementScope scope = excluded
+                ? SqlStatementScope.open(0, 0, false)
+                : SqlStatementScope.open(maxStatements, maxRepeats, strict)) {
+            filterChain.doFilter(request, response);
+            report(request, scope);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementScope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNMATCHED_ROUTE;
+
+        DistributionSummary.builder("blog.sql.statements")
+                .description("SQL statements per request")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(scope.getStatementCount());
+
+        if (scope.isOverBudget()) {
+            log.warn("SQL budget exceeded by {} {} (route {}): {} statements, budget {}; repeated: {}",
+                    request.getMethod(), request.getRequestURI(), route,
+                    scope.getStatementCount(), maxStatements, scope.describeRepeatedShapes(3));
+        }
+    }
+}
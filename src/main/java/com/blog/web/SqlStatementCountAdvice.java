@@ -0,0 +1,40 @@
+package com.blog.web;
+
+import com.blog.sql.SqlStatementScope;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the number of SQL statements run so far by the request as X-SQL-Statement-Count
+ *
+ * For development only (dev profile): it tells a client which calls are expensive.
+ * Set just before the body is written, so it covers the whole handler.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "blog.sql.budget.expose-header", havingValue = "true")
+public class SqlStatementCountAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String HEADER = "X-SQL-Statement-Count";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatementScope scope = SqlStatementScope.current();
+        if (scope != null) {
+            response.getHeaders().set(HEADER, String.valueOf(scope.getStatementCount()));
+        }
+        return body;
+    }
+}
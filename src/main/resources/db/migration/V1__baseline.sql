@@ -0,0 +1,38 @@
+-- schema as it was generated by ddl-auto=update, now owned by Flyway
+
+CREATE SEQUENCE posts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE comments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE posts (
+    id            BIGINT PRIMARY KEY,
+    title         VARCHAR(100) NOT NULL,
+    content       TEXT         NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6),
+    comment_count BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE comments (
+    id          BIGINT PRIMARY KEY,
+    content     TEXT         NOT NULL,
+    author_name VARCHAR(255),
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6),
+    post_id     BIGINT       NOT NULL,
+    CONSTRAINT fk_comments_post FOREIGN KEY (post_id) REFERENCES posts (id)
+);
+
+CREATE TABLE post_categories (
+    post_id     BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    PRIMARY KEY (post_id, category_id),
+    CONSTRAINT fk_post_categories_post FOREIGN KEY (post_id) REFERENCES posts (id),
+    CONSTRAINT fk_post_categories_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
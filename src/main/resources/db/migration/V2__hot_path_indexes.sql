@@ -0,0 +1,12 @@
+-- indexes for the hot read paths, see IndexBenchmark for the plans before and after
+
+-- comments of a post in creation order (findByPostIdOrderByCreatedAtAsc, paged comments):
+-- seek on post_id, rows come out already sorted, id makes the order total for keyset paging
+CREATE INDEX idx_comments_post_created ON comments (post_id, created_at, id);
+
+-- default listing order and the keyset feed, both newest first: an index scan instead of a sort of the table
+CREATE INDEX idx_posts_created ON posts (created_at DESC, id DESC);
+
+-- posts of a category (findByCategoryName, category pages): the primary key only serves post -> categories,
+-- this is the reverse direction and covers the join without touching the table
+CREATE INDEX idx_post_categories_category ON post_categories (category_id, post_id);
@@ -0,0 +1,10 @@
+-- view counts and trending scores, written in batches by TrendingPosts
+
+ALTER TABLE posts ADD COLUMN view_count BIGINT DEFAULT 0 NOT NULL;
+
+-- decayed number of recent views, as of trend_scored_at (null: never viewed)
+ALTER TABLE posts ADD COLUMN trend_score DOUBLE PRECISION DEFAULT 0 NOT NULL;
+ALTER TABLE posts ADD COLUMN trend_scored_at TIMESTAMP(6);
+
+-- startup reload of the recently viewed posts only, not the whole table
+CREATE INDEX idx_posts_trend_scored ON posts (trend_scored_at);
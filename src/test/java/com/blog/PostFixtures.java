@@ -0,0 +1,55 @@
+package com.blog;
+
+import com.blog.entity.Category;
+import com.blog.entity.Comment;
+import com.blog.entity.Post;
+import com.blog.repository.CategoryRepository;
+import com.blog.repository.PostRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Seeds posts with categories and comments for the tests
+ *
+ * A post is saved in one transaction together with managed references to its categories:
+ * cascading PERSIST onto a Category saved earlier (detached) fails the save.
+ */
+public class PostFixtures {
+
+    private final TransactionTemplate transactionTemplate;
+    private final PostRepository postRepository;
+    private final CategoryRepository categoryRepository;
+
+    public PostFixtures(TransactionTemplate transactionTemplate, PostRepository postRepository,
+                        CategoryRepository categoryRepository) {
+        this.transactionTemplate = transactionTemplate;
+        this.postRepository = postRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    // the category with this name, created if missing
+    public Category category(String name, String description) {
+        return transactionTemplate.execute(status -> categoryRepository.findByName(name)
+                .orElseGet(() -> categoryRepository.save(new Category(null, name, description))));
+    }
+
+    // a post in the given categories, with that many comments ("comment 0", "comment 1", ...)
+    public Post post(String title, String content, List<Category> categories, int comments) {
+        return transactionTemplate.execute(status -> {
+            Post post = new Post();
+            post.setTitle(title);
+            post.setContent(content);
+            for (Category category : categories) {
+                post.addCategory(categoryRepository.getReferenceById(category.getId()));
+            }
+            for (int i = 0; i < comments; i++) {
+                Comment comment = new Comment();
+                comment.setContent("comment " + i);
+                comment.setAuthorName("tester");
+                post.addComment(comment);
+            }
+            return postRepository.save(post);
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.blog.cache;
+
+import com.blog.dtos.ResourceVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HomepageFeedCacheTests {
+
+    private static final Sort NEWEST_FIRST = Sort.by("createdAt").descending();
+
+    private final HomepageFeedCache cache = new HomepageFeedCache(2, Duration.ofSeconds(5));
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @Test
+    void coversOnlyTheFirstPagesOfTheDefaultListing() {
+        assertTrue(cache.covers(PageRequest.of(1, 10, NEWEST_FIRST)));
+        assertFalse(cache.covers(PageRequest.of(2, 10, NEWEST_FIRST)));
+        assertFalse(cache.covers(PageRequest.of(0, 20, NEWEST_FIRST)));
+        assertFalse(cache.covers(PageRequest.of(0, 10, Sort.by("title").descending())));
+    }
+
+    @Test
+    void pageIsBuiltOnceAndDroppedWhenOneOfItsPostsChanges() {
+        cache.get(0, () -> page(1L, 2L));
+        cache.get(0, () -> page(1L, 2L));
+        assertEquals(1, builds.get());
+
+        cache.postChanged(3L);
+        cache.get(0, () -> page(1L, 2L));
+        assertEquals(1, builds.get());
+
+        cache.postChanged(2L);
+        cache.get(0, () -> page(1L, 2L));
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    void pageBuiltDuringAChangeIsServedButNotKept() {
+        FeedPage served = cache.get(0, () -> {
+            FeedPage page = page(1L);
+            cache.postChanged(1L);
+            return page;
+        });
+        assertEquals("page", new String(served.getJson(), StandardCharsets.UTF_8));
+
+        cache.get(0, () -> page(1L));
+        assertEquals(2, builds.get());
+    }
+
+    private FeedPage page(Long... postIds) {
+        builds.incrementAndGet();
+        return new FeedPage("page".getBytes(StandardCharsets.UTF_8), new ResourceVersion("W/\"1\"", null), Set.of(postIds));
+    }
+}
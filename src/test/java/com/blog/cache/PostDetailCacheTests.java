@@ -0,0 +1,42 @@
+package com.blog.cache;
+
+import com.blog.dtos.PostResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PostDetailCacheTests {
+
+    private final PostDetailCache cache = new PostDetailCache(1_000_000, Duration.ofMinutes(10), Duration.ofSeconds(5));
+
+    @Test
+    void loadIsKeptWhenAnotherPostIsInvalidated() {
+        cache.get(1L, id -> {
+            cache.invalidate(2L);
+            return post(id);
+        });
+
+        assertNotNull(cache.getIfPresent(1L));
+    }
+
+    @Test
+    void loadRacingAnInvalidationOfItsPostIsNotKept() {
+        cache.get(1L, id -> {
+            cache.invalidate(1L);
+            return post(id);
+        });
+
+        assertNull(cache.getIfPresent(1L));
+    }
+
+    private static PostResponse post(Long id) {
+        PostResponse post = new PostResponse();
+        post.setId(id);
+        post.setTitle("post " + id);
+        post.setContent("content");
+        return post;
+    }
+}
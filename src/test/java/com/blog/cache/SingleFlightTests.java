@@ -0,0 +1,132 @@
+package com.blog.cache;
+
+import com.blog.exception.ResourceNotFoundException;
+import com.blog.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTests {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(flight, id -> {
+            loads.incrementAndGet();
+            await(release);
+            return "post " + id;
+        });
+        awaitWaiters(flight);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("post 1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS - 1, flight.coalescedCount());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void loaderExceptionReachesEveryWaiter() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(flight, id -> {
+            await(release);
+            throw ResourceNotFoundException.forId("Post", id);
+        });
+        awaitWaiters(flight);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void waiterTimesOutWhileTheLoadGoesOn() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.load(1L, id -> {
+            await(release);
+            return "post " + id;
+        }));
+        while (flight.inFlight() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(ServiceUnavailableException.class, () -> flight.load(1L, id -> "not called"));
+        release.countDown();
+        assertEquals("post 1", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void forgottenKeyStartsANewLoad() {
+        SingleFlight<Long, String> flight = new SingleFlight<>("test", Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        String value = flight.load(1L, id -> {
+            flight.forget(id);
+            // a caller arriving after forget does not join the running load
+            return flight.load(id, key -> "reloaded " + loads.incrementAndGet());
+        });
+
+        assertEquals("reloaded 1", value);
+        assertEquals(0, flight.coalescedCount());
+    }
+
+    private List<Future<String>> callConcurrently(SingleFlight<Long, String> flight,
+                                                  Function<Long, String> loader) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> flight.load(1L, loader)));
+        }
+        return results;
+    }
+
+    // every caller but the leader is waiting
+    private static void awaitWaiters(SingleFlight<Long, String> flight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.coalescedCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.blog.controller;
+
+import com.blog.PostFixtures;
+import com.blog.cache.PostDetailCache;
+import com.blog.dtos.CategoryRequest;
+import com.blog.dtos.ResourceVersion;
+import com.blog.entity.Category;
+import com.blog.repository.CategoryRepository;
+import com.blog.repository.PostRepository;
+import com.blog.service.CategoryService;
+import com.blog.service.PostService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Post versions for conditional GET: the cached and the database paths agree,
+ * and a category rename is a new version
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PostConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private PostDetailCache postDetailCache;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long postId;
+    private Category category;
+
+    @BeforeEach
+    void createPost() {
+        // a category of its own per test, renamed by some of them
+        PostFixtures fixtures = new PostFixtures(transactionTemplate, postRepository, categoryRepository);
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        category = fixtures.category("etag-" + suffix, "conditional GET");
+        Category other = fixtures.category("etag-other-" + suffix, "conditional GET");
+
+        postId = fixtures.post("Conditional GET", "Post read with If-None-Match", List.of(category, other), 1).getId();
+    }
+
+    @Test
+    void cacheAndDatabaseGiveTheSameVersion() {
+        postDetailCache.invalidate(postId);
+        ResourceVersion fromDatabase = postService.getPostVersion(postId);
+
+        postService.getPostById(postId);
+        assertNotNull(postDetailCache.getIfPresent(postId));
+        ResourceVersion fromCache = postService.getPostVersion(postId);
+
+        assertEquals(fromDatabase, fromCache);
+    }
+
+    @Test
+    void matchingIfNoneMatchGets304() throws Exception {
+        String etag = mockMvc.perform(get("/api/posts/{id}", postId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void categoryRenameChangesTheVersion() throws Exception {
+        postService.getPostById(postId);
+        ResourceVersion before = postService.getPostVersion(postId);
+
+        categoryService.updateCategory(category.getId(), new CategoryRequest(category.getName() + "-renamed", "renamed"));
+
+        // the rename dropped the cached post: from the database, then from the cache again
+        assertNull(postDetailCache.getIfPresent(postId));
+        ResourceVersion fromDatabase = postService.getPostVersion(postId);
+        postService.getPostById(postId);
+        ResourceVersion fromCache = postService.getPostVersion(postId);
+
+        assertNotEquals(before.getEtag(), fromDatabase.getEtag());
+        assertEquals(fromDatabase, fromCache);
+
+        mockMvc.perform(get("/api/posts/{id}", postId).header(HttpHeaders.IF_NONE_MATCH, before.getEtag()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, fromCache.getEtag()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.blog.counter;
+
+import com.blog.PostFixtures;
+import com.blog.repository.CategoryRepository;
+import com.blog.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reconciling posts.comment_count with the comments table
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class CommentCountBufferTests {
+
+    @Autowired
+    private CommentCountBuffer commentCountBuffer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcileCorrectsDriftedCounts() {
+        PostFixtures fixtures = new PostFixtures(transactionTemplate, postRepository, categoryRepository);
+        Long postId = fixtures.post("Drifted count", "Its comment count is wrong", List.of(), 3).getId();
+        // stored count changed outside the app, plus a pending delta flushed by the reconcile
+        jdbcTemplate.update("UPDATE posts SET comment_count = 10 WHERE id = ?", postId);
+        commentCountBuffer.add(postId, 2);
+
+        commentCountBuffer.reconcile();
+
+        assertEquals(3, storedCount(postId));
+        assertEquals(0, commentCountBuffer.pending(postId));
+    }
+
+    private long storedCount(Long postId) {
+        return jdbcTemplate.queryForObject("SELECT comment_count FROM posts WHERE id = ?", Long.class, postId);
+    }
+}
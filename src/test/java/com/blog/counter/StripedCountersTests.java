@@ -0,0 +1,65 @@
+package com.blog.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StripedCountersTests {
+
+    @Test
+    void drainReleasesIdleIds() {
+        StripedCounters counters = new StripedCounters();
+        counters.add(1L, 3);
+        counters.add(2L, 1);
+
+        assertEquals(Map.of(1L, 3L, 2L, 1L), counters.drain());
+        assertEquals(2, counters.size());
+
+        counters.add(1L, 1);
+        assertEquals(Map.of(1L, 1L), counters.drain());
+        assertEquals(1, counters.size());
+    }
+
+    @Test
+    void incrementsRacingWithDrainsAreNeitherLostNorCountedTwice() throws Exception {
+        StripedCounters counters = new StripedCounters();
+        int threads = 4;
+        int increments = 100_000;
+        AtomicLong drained = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] adders = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                adders[t] = executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        counters.add((long) (i % 3), 1);
+                    }
+                });
+            }
+            boolean running = true;
+            while (running) {
+                counters.drain().values().forEach(drained::addAndGet);
+                running = false;
+                for (Future<?> adder : adders) {
+                    running |= !adder.isDone();
+                }
+            }
+            for (Future<?> adder : adders) {
+                adder.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        counters.drain().values().forEach(drained::addAndGet);
+
+        assertEquals((long) threads * increments, drained.get());
+    }
+}
@@ -0,0 +1,104 @@
+package com.blog.datasource;
+
+import com.blog.dtos.CategoryRequest;
+import com.blog.dtos.CategoryResponse;
+import com.blog.service.CategoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Read/write routing against two local H2 databases, the second one standing in for a replica
+ *
+ * Nothing replicates between them, which makes the routing visible: a row inserted
+ * only in the replica is seen by read-only transactions and by nothing else.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=" + ReadWriteRoutingTests.PRIMARY_URL,
+                "blog.datasource.replica.enabled=true",
+                "blog.datasource.replica.urls=" + ReadWriteRoutingTests.REPLICA_URL
+        }
+)
+class ReadWriteRoutingTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_ONLY = "replica-only";
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void prepareReplica() {
+        // a real replica gets its schema and rows from the primary
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""))
+                .update("INSERT INTO categories (name, description) VALUES (?, ?)", REPLICA_ONLY, "stand-in replica");
+    }
+
+    // category queries are cached: every test starts from the databases, whatever ran before
+    @BeforeEach
+    void evictCaches() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        assertTrue(categoryNames().contains(REPLICA_ONLY));
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        categoryService.createCategory(new CategoryRequest("routed-write", "written to the primary"));
+
+        Integer onPrimary = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM categories WHERE name = 'routed-write'", Integer.class);
+        assertEquals(1, onPrimary);
+        assertFalse(categoryNames().contains("routed-write"));
+    }
+
+    @Test
+    void readYourWritesReadsFromThePrimary() {
+        try (ReplicaRouting.Scope ignored = ReplicaRouting.primaryOnly()) {
+            assertFalse(categoryNames().contains(REPLICA_ONLY));
+        }
+    }
+
+    @Test
+    void replicaReadsDoNotFillTheCaches() {
+        assertTrue(categoryNames().contains(REPLICA_ONLY));
+
+        try (ReplicaRouting.Scope ignored = ReplicaRouting.primaryOnly()) {
+            assertFalse(categoryNames().contains(REPLICA_ONLY));
+        }
+    }
+
+    private List<String> categoryNames() {
+        return categoryService.getAllCategories().stream()
+                .map(CategoryResponse::getName)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,79 @@
+package com.blog.service;
+
+import com.blog.dtos.CategoryRequest;
+import com.blog.dtos.CategoryResponse;
+import com.blog.entity.Category;
+import com.blog.exception.ResourceNotFoundException;
+import com.blog.repository.CategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Category reads served by the second-level cache, and kept right by updates and deletes
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class CategorySecondLevelCacheTests {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void categoryByIdIsReadFromTheCache() {
+        Long id = categoryService.createCategory(new CategoryRequest("l2-cached", "second-level cache")).getId();
+        categoryService.getCategoryById(id);
+
+        Statistics statistics = statistics();
+        statistics.clear();
+        categoryService.getCategoryById(id);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Category.CACHE_REGION);
+        assertEquals(1, region.getHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void updateReplacesTheCachedCategory() {
+        Long id = categoryService.createCategory(new CategoryRequest("l2-before", "second-level cache")).getId();
+        categoryService.getCategoryById(id);
+        assertTrue(categoryRepository.existsByName("l2-before"));
+
+        categoryService.updateCategory(id, new CategoryRequest("l2-after", "renamed"));
+
+        CategoryResponse updated = categoryService.getCategoryById(id);
+        assertEquals("l2-after", updated.getName());
+        assertFalse(categoryRepository.existsByName("l2-before"));
+        assertTrue(categoryRepository.findByName("l2-after").isPresent());
+    }
+
+    @Test
+    void deleteEvictsTheCachedCategory() {
+        Long id = categoryService.createCategory(new CategoryRequest("l2-deleted", "second-level cache")).getId();
+        categoryService.getCategoryById(id);
+        assertTrue(categoryRepository.findByName("l2-deleted").isPresent());
+
+        categoryService.deleteCategory(id);
+
+        assertThrows(ResourceNotFoundException.class, () -> categoryService.getCategoryById(id));
+        assertFalse(categoryRepository.findByName("l2-deleted").isPresent());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,112 @@
+package com.blog.service;
+
+import com.blog.entity.Comment;
+import com.blog.entity.Post;
+import com.blog.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comment thread windows: walking them with nextCursor returns every comment once, in order
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class CommentServiceThreadTests {
+
+    private static final LocalDateTime TIED_CREATED_AT = LocalDateTime.of(2020, 6, 1, 8, 0);
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long postId;
+    // oldest first: one comment before the tied ones, four tied (by id), one after
+    private List<Long> oldestFirst;
+
+    @BeforeEach
+    void seed() {
+        Post post = new Post();
+        post.setTitle("Comment thread");
+        post.setContent("A thread with comments created in the same instant");
+        for (int i = 0; i < 6; i++) {
+            Comment comment = new Comment();
+            comment.setContent("comment " + i);
+            comment.setAuthorName("tester");
+            post.addComment(comment);
+        }
+        post = postRepository.save(post);
+        postId = post.getId();
+
+        oldestFirst = new ArrayList<>();
+        for (Comment comment : post.getComments()) {
+            oldestFirst.add(comment.getId());
+        }
+        Collections.sort(oldestFirst);
+
+        for (int i = 0; i < oldestFirst.size(); i++) {
+            LocalDateTime createdAt = i == 0 ? TIED_CREATED_AT.minusMinutes(1)
+                    : i == oldestFirst.size() - 1 ? TIED_CREATED_AT.plusMinutes(1)
+                    : TIED_CREATED_AT;
+            jdbcTemplate.update("UPDATE comments SET created_at = ? WHERE id = ?",
+                    Timestamp.valueOf(createdAt), oldestFirst.get(i));
+        }
+    }
+
+    @Test
+    void oldestFirstWalkSplitsTiesAcrossWindows() {
+        assertEquals(oldestFirst, walk(false));
+    }
+
+    @Test
+    void newestFirstWalkIsTheReverse() {
+        List<Long> newestFirst = new ArrayList<>(oldestFirst);
+        Collections.reverse(newestFirst);
+
+        assertEquals(newestFirst, walk(true));
+    }
+
+    // windows of 2, until the last one
+    private List<Long> walk(boolean newestFirst) {
+        List<Long> ids = new ArrayList<>();
+        KeysetCursor cursor = null;
+        JsonNode window;
+        do {
+            window = window(cursor, newestFirst);
+            window.get("content").forEach(comment -> ids.add(comment.get("id").asLong()));
+            cursor = window.get("hasNext").asBoolean() ? KeysetCursor.decode(window.get("nextCursor").asString()) : null;
+        } while (cursor != null);
+
+        assertFalse(window.get("hasNext").asBoolean());
+        assertTrue(window.get("nextCursor").isNull());
+        return ids;
+    }
+
+    private JsonNode window(KeysetCursor after, boolean newestFirst) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        commentService.streamThread(postId, after, 2, newestFirst, out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+}
@@ -0,0 +1,201 @@
+package com.blog.service;
+
+import com.blog.cache.HomepageFeedCache;
+import com.blog.cache.PostDetailCache;
+import com.blog.counter.CommentCountBuffer;
+import com.blog.dtos.CommentRequest;
+import com.blog.dtos.CommentResponse;
+import com.blog.entity.Post;
+import com.blog.exception.GlobalExceptionHandler;
+import com.blog.exception.ServiceUnavailableException;
+import com.blog.repository.PostRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Write-behind comment creation: group commits, backpressure, acknowledgements and failed groups
+ *
+ * Each test starts its own writer with the settings it needs, on the beans of the context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class CommentWriteBehindTests {
+
+    // long enough that a group is only written once it is full, or on stop
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PostDetailCache postDetailCache;
+
+    @Autowired
+    private HomepageFeedCache homepageFeedCache;
+
+    @Autowired
+    private CommentCountBuffer commentCountBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<CommentWriteBehind> writers = new ArrayList<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    private Long postId;
+
+    @BeforeEach
+    void createPost() {
+        Post post = new Post();
+        post.setTitle("Write-behind");
+        post.setContent("Post receiving write-behind comments");
+        postId = postRepository.save(post).getId();
+    }
+
+    @AfterEach
+    void stopWriters() throws InterruptedException {
+        executor.shutdownNow();
+        for (CommentWriteBehind writer : writers) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void queuedCommentsAreWrittenOnceTheGroupIsFull() throws InterruptedException {
+        CommentWriteBehind writeBehind = start(10, 3, NEVER, CommentWriteBehind.Ack.ACCEPTED);
+
+        writeBehind.submit(comment("first"));
+        writeBehind.submit(comment("second"));
+        Thread.sleep(200);
+        assertEquals(2, writeBehind.getQueueDepth());
+        assertEquals(List.of(), contents());
+
+        writeBehind.submit(comment("third"));
+        awaitUntil(() -> contents().size() == 3);
+        assertEquals(0, writeBehind.getQueueDepth());
+        assertEquals(List.of("first", "second", "third"), contents());
+    }
+
+    @Test
+    void fullQueueRefusesCommentsWith503() {
+        CommentWriteBehind writeBehind = start(2, 100, NEVER, CommentWriteBehind.Ack.ACCEPTED);
+        writeBehind.submit(comment("first"));
+        writeBehind.submit(comment("second"));
+
+        ServiceUnavailableException refused = assertThrows(ServiceUnavailableException.class,
+                () -> writeBehind.submit(comment("third")));
+
+        assertEquals(503, new GlobalExceptionHandler().handleServiceUnavailableException(refused)
+                .getStatusCode().value());
+        assertEquals(2, writeBehind.getQueueDepth());
+    }
+
+    @Test
+    void acceptedReturnsBeforeTheCommit() throws InterruptedException {
+        CommentWriteBehind writeBehind = start(10, 100, NEVER, CommentWriteBehind.Ack.ACCEPTED);
+
+        CommentResponse response = writeBehind.submit(comment("accepted"));
+
+        assertNull(response.getId());
+        assertEquals("accepted", response.getContent());
+        assertEquals(1, writeBehind.getQueueDepth());
+        assertEquals(List.of(), contents());
+
+        // written when the writer stops
+        writeBehind.stop();
+        assertEquals(List.of("accepted"), contents());
+    }
+
+    @Test
+    void committedReturnsTheWrittenComment() {
+        CommentWriteBehind writeBehind = start(10, 100, Duration.ofMillis(20), CommentWriteBehind.Ack.COMMITTED);
+
+        CommentResponse response = writeBehind.submit(comment("committed"));
+
+        assertNotNull(response.getId());
+        assertNotNull(response.getCreatedAt());
+        assertEquals(postId, response.getPostId());
+        assertEquals(List.of("committed"), contents());
+    }
+
+    @Test
+    void failedGroupIsWrittenAgainOneCommentAtATime() {
+        CommentWriteBehind writeBehind = start(10, 3, NEVER, CommentWriteBehind.Ack.COMMITTED);
+
+        // the comment without content violates NOT NULL and fails the group transaction
+        Future<CommentResponse> first = executor.submit(() -> writeBehind.submit(comment("first")));
+        Future<CommentResponse> invalid = executor.submit(() -> writeBehind.submit(comment(null)));
+        Future<CommentResponse> second = executor.submit(() -> writeBehind.submit(comment("second")));
+
+        assertNotNull(result(first).getId());
+        assertNotNull(result(second).getId());
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> invalid.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceUnavailableException.class, failed.getCause());
+
+        // each valid comment once, nothing of the failed group transaction
+        List<String> contents = contents();
+        assertEquals(2, contents.size());
+        assertTrue(contents.containsAll(List.of("first", "second")));
+    }
+
+    private CommentWriteBehind start(int capacity, int batchSize, Duration maxLatency, CommentWriteBehind.Ack ack) {
+        CommentWriteBehind writeBehind = new CommentWriteBehind(postRepository, entityManager, transactionTemplate,
+                postDetailCache, homepageFeedCache, commentCountBuffer,
+                true, capacity, batchSize, maxLatency, ack, Duration.ofSeconds(10));
+        writeBehind.start();
+        writers.add(writeBehind);
+        return writeBehind;
+    }
+
+    private CommentRequest comment(String content) {
+        return new CommentRequest(content, "tester", postId);
+    }
+
+    private List<String> contents() {
+        return jdbcTemplate.queryForList(
+                "SELECT content FROM comments WHERE post_id = ? ORDER BY id", String.class, postId);
+    }
+
+    private static CommentResponse result(Future<CommentResponse> future) {
+        try {
+            return future.get(10, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
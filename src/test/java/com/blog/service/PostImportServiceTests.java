@@ -0,0 +1,70 @@
+package com.blog.service;
+
+import com.blog.PostFixtures;
+import com.blog.dtos.ImportProgressResponse;
+import com.blog.repository.CategoryRepository;
+import com.blog.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streaming import: JSON arrays and NDJSON, and input that stops being a sequence of records
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class PostImportServiceTests {
+
+    private static final String CATEGORY = "import";
+    private static final String RECORD =
+            "{\"title\":\"Imported post\",\"content\":\"Content of an imported post\",\"categoryNames\":[\"" + CATEGORY + "\"]}";
+
+    @Autowired
+    private PostImportService postImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void seed() {
+        new PostFixtures(transactionTemplate, postRepository, categoryRepository).category(CATEGORY, "import tests");
+    }
+
+    @Test
+    void arrayAndNdjsonImportEveryRecord() {
+        assertCompleted(importing("[" + RECORD + "," + RECORD + "]"), 2);
+        assertCompleted(importing(RECORD + "\n" + RECORD + "\n"), 2);
+    }
+
+    @Test
+    void anythingButARecordBeforeTheEndFailsTheImport() {
+        for (String input : new String[]{"[" + RECORD + ", 42]", "[" + RECORD + "] " + RECORD, RECORD + "\n42"}) {
+            ImportProgressResponse report = importing(input);
+
+            assertEquals(PostImportService.FAILED, report.getStatus(), input);
+            assertTrue(report.getErrors().get(0).contains("(line "), report.getErrors().toString());
+        }
+    }
+
+    private ImportProgressResponse importing(String input) {
+        return postImportService.importPosts(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertCompleted(ImportProgressResponse report, long imported) {
+        assertEquals(PostImportService.COMPLETED, report.getStatus(), report.getErrors().toString());
+        assertEquals(imported, report.getImported());
+    }
+}
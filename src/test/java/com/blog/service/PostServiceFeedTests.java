@@ -0,0 +1,120 @@
+package com.blog.service;
+
+import com.blog.dtos.CursorPageResponse;
+import com.blog.dtos.PostResponse;
+import com.blog.entity.Post;
+import com.blog.exception.BadRequestException;
+import com.blog.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset feed: cursors, and walking the feed window by window with nextCursor
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class PostServiceFeedTests {
+
+    private static final int TIED_POSTS = 5;
+    // older than any other post, so the tied posts are the end of the feed
+    private static final LocalDateTime TIED_CREATED_AT = LocalDateTime.of(2000, 1, 1, 12, 0);
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cursorRoundTrips() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 5, 17, 9, 30, 15, 123456000), 42L);
+
+        String token = cursor.encode();
+        KeysetCursor decoded = KeysetCursor.decode(token);
+
+        assertEquals(cursor.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(cursor.getId(), decoded.getId());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "token is not URL safe: " + token);
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        String notBase64 = "not a cursor!";
+        String noSeparator = encode("2024-05-17T09:30");
+        String badDate = encode("yesterday|42");
+        String badId = encode("2024-05-17T09:30|forty-two");
+
+        for (String cursor : List.of(notBase64, noSeparator, badDate, badId)) {
+            assertThrows(BadRequestException.class, () -> postService.getPostFeed(cursor, 10), cursor);
+        }
+    }
+
+    @Test
+    void tiesOnCreatedAtAreWalkedByIdWithoutSkipsOrRepeats() {
+        List<Long> tied = new ArrayList<>();
+        for (int i = 0; i < TIED_POSTS; i++) {
+            Post post = new Post();
+            post.setTitle("Feed tie " + i);
+            post.setContent("Created in the same instant as the other tied posts");
+            tied.add(postRepository.save(post).getId());
+        }
+        for (Long id : tied) {
+            jdbcTemplate.update("UPDATE posts SET created_at = ? WHERE id = ?", Timestamp.valueOf(TIED_CREATED_AT), id);
+        }
+
+        // seek to just after the tied posts, then windows of 2 so that they are split over several windows
+        String cursor = new KeysetCursor(TIED_CREATED_AT.plusSeconds(1), 0L).encode();
+        List<Long> walked = new ArrayList<>();
+        CursorPageResponse<PostResponse> window;
+        do {
+            window = postService.getPostFeed(cursor, 2);
+            walked.addAll(ids(window));
+            cursor = window.getNextCursor();
+        } while (window.isHasNext());
+
+        tied.sort(Comparator.reverseOrder());
+        assertEquals(tied, walked);
+
+        // the last window
+        assertEquals(1, window.getSize());
+        assertNull(window.getNextCursor());
+    }
+
+    @Test
+    void feedPastTheLastPostIsEmpty() {
+        String pastTheEnd = new KeysetCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L).encode();
+
+        CursorPageResponse<PostResponse> window = postService.getPostFeed(pastTheEnd, 10);
+
+        assertTrue(window.getContent().isEmpty());
+        assertFalse(window.isHasNext());
+        assertNull(window.getNextCursor());
+    }
+
+    private static List<Long> ids(CursorPageResponse<PostResponse> window) {
+        return window.getContent().stream().map(PostResponse::getId).collect(Collectors.toList());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
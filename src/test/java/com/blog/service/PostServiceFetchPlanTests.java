@@ -0,0 +1,97 @@
+package com.blog.service;
+
+import com.blog.PostFixtures;
+import com.blog.entity.Category;
+import com.blog.repository.CategoryRepository;
+import com.blog.repository.PostRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Paged post reads must not lazy load associations per row (N+1)
+ *
+ * Each read is expected to run the page id query, the count query,
+ * one query for categories and one for comments, whatever the page size.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true"
+)
+class PostServiceFetchPlanTests {
+
+    private static final int POSTS = 30;
+    private static final String CATEGORY = "fetch-plans";
+    private static final long STATEMENTS_PER_PAGE = 4;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (categoryRepository.existsByName(CATEGORY)) {
+            return;
+        }
+
+        PostFixtures fixtures = new PostFixtures(transactionTemplate, postRepository, categoryRepository);
+        List<Category> categories = List.of(
+                fixtures.category(CATEGORY, "fetch plan tests"),
+                fixtures.category(CATEGORY + "-other", "fetch plan tests"));
+
+        for (int i = 0; i < POSTS; i++) {
+            fixtures.post("Fetch plan post " + i, "Content of fetch plan post number " + i, categories, 3);
+        }
+    }
+
+    @Test
+    void getAllPostsRunsFixedStatementCountPerPage() {
+        Sort newestFirst = Sort.by("createdAt").descending();
+
+        long small = statementsFor(() -> postService.getAllPosts(PageRequest.of(0, 5, newestFirst)));
+        long large = statementsFor(() -> postService.getAllPosts(PageRequest.of(0, 25, newestFirst)));
+
+        assertEquals(STATEMENTS_PER_PAGE, small);
+        assertEquals(STATEMENTS_PER_PAGE, large);
+    }
+
+    @Test
+    void getPostsByCategoryRunsFixedStatementCountPerPage() {
+        Sort newestFirst = Sort.by("createdAt").descending();
+
+        long small = statementsFor(() -> postService.getPostsByCategory(CATEGORY, PageRequest.of(0, 5, newestFirst)));
+        long large = statementsFor(() -> postService.getPostsByCategory(CATEGORY, PageRequest.of(0, 25, newestFirst)));
+
+        assertEquals(STATEMENTS_PER_PAGE, small);
+        assertEquals(STATEMENTS_PER_PAGE, large);
+    }
+
+    private long statementsFor(Runnable read) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
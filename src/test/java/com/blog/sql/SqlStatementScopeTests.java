@@ -0,0 +1,45 @@
+package com.blog.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlStatementScopeTests {
+
+    private static final String LAZY_COMMENTS = "select c1_0.post_id,c1_0.id from comments c1_0 where c1_0.post_id=?";
+
+    private final SqlStatementInspector inspector = new SqlStatementInspector();
+
+    @Test
+    void shapeIgnoresLiteralsWhitespaceAndInListLength() {
+        assertEquals(
+                SqlStatementScope.shape("select * from posts p where p.id in (?, ?, ?) and p.title = 'a'"),
+                SqlStatementScope.shape("select *\n  from posts p where p.id in (?,?) and p.title = 'b'"));
+    }
+
+    @Test
+    void strictScopeFailsOnRepeatedStatement() {
+        try (SqlStatementScope scope = SqlStatementScope.open(0, 3, true)) {
+            for (int i = 0; i < 3; i++) {
+                inspector.inspect(LAZY_COMMENTS);
+            }
+            assertThrows(SqlBudgetExceededException.class, () -> inspector.inspect(LAZY_COMMENTS));
+        }
+    }
+
+    @Test
+    void lenientScopeCountsAndReportsOverBudget() {
+        try (SqlStatementScope scope = SqlStatementScope.open(2, 0, false)) {
+            for (int i = 0; i < 3; i++) {
+                inspector.inspect(LAZY_COMMENTS);
+            }
+            assertEquals(3, scope.getStatementCount());
+            assertTrue(scope.isOverBudget());
+            assertTrue(scope.describeRepeatedShapes(1).startsWith("3 x "));
+        }
+        assertNull(SqlStatementScope.current());
+    }
+}
@@ -0,0 +1,64 @@
+package com.blog.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKTests {
+
+    @Test
+    void keepsTheHighestScoresInOrder() {
+        TopK topK = new TopK(3);
+        for (long id = 1; id <= 10; id++) {
+            topK.offer(id, id);
+        }
+
+        assertEquals(List.of(10L, 9L, 8L), ids(topK));
+    }
+
+    @Test
+    void growingScoreEntersTheTopAndPushesOutTheLowest() {
+        TopK topK = new TopK(2);
+        topK.offer(1L, 5);
+        topK.offer(2L, 4);
+        assertFalse(topK.offer(3L, 1));
+
+        assertTrue(topK.offer(3L, 6));
+        assertEquals(List.of(3L, 1L), ids(topK));
+        assertTrue(topK.offer(1L, 7));
+        assertEquals(List.of(1L, 3L), ids(topK));
+    }
+
+    @Test
+    void equalScoresAreDistinctEntries() {
+        TopK topK = new TopK(3);
+        topK.offer(1L, 2);
+        topK.offer(2L, 2);
+
+        assertEquals(2, topK.size());
+    }
+
+    @Test
+    void removedPostIsReplacedOnRebuild() {
+        TopK topK = new TopK(2);
+        Map<Long, Double> scores = Map.of(1L, 3.0, 2L, 2.0, 3L, 1.0);
+        topK.rebuild(scores);
+        assertEquals(List.of(1L, 2L), ids(topK));
+
+        assertTrue(topK.remove(1L));
+        topK.rebuild(Map.of(2L, 2.0, 3L, 1.0));
+        assertEquals(List.of(2L, 3L), ids(topK));
+    }
+
+    private static List<Long> ids(TopK topK) {
+        return topK.snapshot().stream()
+                .map(RankedPost::getPostId)
+                .collect(Collectors.toList());
+    }
+}
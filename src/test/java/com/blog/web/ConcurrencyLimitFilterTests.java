@@ -0,0 +1,44 @@
+package com.blog.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With a single permit: a streamed export holds it until its body is written
+ */
+@SpringBootTest(properties = {
+        "blog.concurrency.max-in-flight=1",
+        "blog.concurrency.acquire-timeout=50ms"
+})
+@AutoConfigureMockMvc
+class ConcurrencyLimitFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void asyncRequestHoldsThePermitUntilItCompletes() throws Exception {
+        MvcResult export = mockMvc.perform(get("/api/posts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(get("/api/categories").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable());
+
+        mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/categories").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,92 @@
+package com.blog.web;
+
+import com.blog.PostFixtures;
+import com.blog.entity.Category;
+import com.blog.repository.CategoryRepository;
+import com.blog.repository.PostRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests through SqlBudgetFilter in strict mode (test profile)
+ *
+ * The budget is lowered to 3 statements: reading a category fits in it,
+ * a paged post listing (version, page ids, count, categories, comments) does not.
+ */
+@SpringBootTest(properties = "blog.sql.budget.max-statements=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlBudgetFilterTests {
+
+    private static final String CATEGORY = "sql-budget";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void seed() {
+        PostFixtures fixtures = new PostFixtures(transactionTemplate, postRepository, categoryRepository);
+        Category category = fixtures.category(CATEGORY, "sql budget tests");
+        categoryId = category.getId();
+
+        fixtures.post("Within a listing", "Listed by the over budget request", List.of(category), 0);
+    }
+
+    @Test
+    void requestWithinTheBudgetIsCounted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/categories/{id}", categoryId))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String count = result.getResponse().getHeader(SqlStatementCountAdvice.HEADER);
+        assertNotNull(count);
+        assertTrue(Integer.parseInt(count) <= 3, "statements: " + count);
+
+        DistributionSummary statements = meterRegistry.find("blog.sql.statements")
+                .tag("route", "/api/categories/{id}")
+                .summary();
+        assertNotNull(statements);
+        assertTrue(statements.count() > 0);
+    }
+
+    @Test
+    void requestOverTheBudgetFailsInStrictMode() throws Exception {
+        mockMvc.perform(get("/api/posts").param("sortBy", "title").param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message", containsString("budget")));
+    }
+}